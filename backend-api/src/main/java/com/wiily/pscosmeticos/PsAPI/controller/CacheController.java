@@ -0,0 +1,27 @@
+package com.wiily.pscosmeticos.PsAPI.controller;
+
+import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CacheStats;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.LruByteCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/v1/cache")
+public class CacheController {
+    @Autowired
+    Map<String, LruByteCache<?>> caches;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse> getStats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.stats()));
+        return ResponseEntity.ok(new ApiResponse(true, stats));
+    }
+}
@@ -0,0 +1,76 @@
+package com.wiily.pscosmeticos.PsAPI.controller;
+
+import com.wiily.pscosmeticos.PsAPI.service.CatalogSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/catalogo")
+public class CatalogController {
+    @Autowired
+    CatalogSnapshotService snapshotService;
+
+    @GetMapping("snapshot")
+    public ResponseEntity<Resource> getSnapshot(@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                WebRequest request) {
+        var snapshot = snapshotService.getCurrent();
+        if (snapshot == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        // The version is a hash of the JSON; each encoding is a different representation, so each gets its own tag.
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = "\"" + snapshot.version() + (gzip ? "-gz" : "") + "\"";
+        var cacheControl = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        var response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(new FileSystemResource(gzip ? snapshot.gzip() : snapshot.json()));
+    }
+
+    // gzip is acceptable when listed, or covered by "*", with a q-value above zero; an explicit entry wins over "*".
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzip = null;
+        Double any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (!param.toLowerCase().startsWith("q=")) continue;
+                try {
+                    q = Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    q = 0;
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) gzip = q;
+            else if (coding.equals("*")) any = q;
+        }
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0;
+    }
+}
@@ -7,15 +7,20 @@ import com.wiily.pscosmeticos.PsAPI.domain.category.dto.returns.ReturnCategoryCr
 import com.wiily.pscosmeticos.PsAPI.domain.category.dto.returns.ReturnCategoryData;
 import com.wiily.pscosmeticos.PsAPI.domain.category.dto.returns.ReturnCategoryEditedData;
 import com.wiily.pscosmeticos.PsAPI.domain.subcategory.dto.returns.ReturnSubCategoryData;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ImageIsNull;
 import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
 import com.wiily.pscosmeticos.PsAPI.service.CategoryService;
-import com.wiily.pscosmeticos.PsAPI.service.ImageService;
+import com.wiily.pscosmeticos.PsAPI.service.CategoryTreeService;
+import com.wiily.pscosmeticos.PsAPI.service.ImageIngestionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -30,9 +35,13 @@ public class CategoryController {
     @Autowired
     CategoryRepository repository;
     @Autowired
-    ImageService imageService;
+    ImageIngestionService imageIngestionService;
     @Autowired
     CategoryService service;
+    @Autowired
+    ApplicationEventPublisher events;
+    @Autowired
+    CategoryTreeService categoryTreeService;
 
     @GetMapping
     public ResponseEntity<Page<ReturnCategoryData>> getCategories(@PageableDefault(size = 12) Pageable pageable) {
@@ -40,6 +49,13 @@ public class CategoryController {
         return ResponseEntity.ok(page);
     }
 
+    @GetMapping("arvore")
+    public ResponseEntity<byte[]> getCategoryTree() throws JsonProcessingException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(categoryTreeService.getTree());
+    }
+
     @PostMapping
     @Transactional
     public ResponseEntity<Object> createCategory(@RequestPart(name = "dados") @Valid CreateCategoryData categoryData,
@@ -47,8 +63,9 @@ public class CategoryController {
                                                  UriComponentsBuilder uriBuilder) {
         if (image.isEmpty()) throw new ImageIsNull("The image sent to the API doesn't exist");
         var category = new Category(categoryData);
-        category.setImageUrl(imageService.imageProcessor(image, category));
+        category.setImageUrl(imageIngestionService.submit(image, category));
         repository.save(category);
+        events.publishEvent(CatalogChangedEvent.catalog());
         var uri = uriBuilder.path("/api/v1/categorias").buildAndExpand(category.getId()).toUri();
         return ResponseEntity.created(uri).body(new ApiResponse(true, new ReturnCategoryCreationData(category)));
     }
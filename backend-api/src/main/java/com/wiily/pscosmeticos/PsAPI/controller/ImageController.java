@@ -1,17 +1,30 @@
 package com.wiily.pscosmeticos.PsAPI.controller;
 
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageCacheKey;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageFormat;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageRendition;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageVariant;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.ByteBufferResource;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.LruByteCache;
 import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
-import net.coobird.thumbnailator.Thumbnails;
+import com.wiily.pscosmeticos.PsAPI.infra.storage.ImageStore;
+import com.wiily.pscosmeticos.PsAPI.service.ImageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -19,58 +32,99 @@ import java.util.Optional;
 public class ImageController {
     @Autowired
     AppProperties properties;
+    @Autowired
+    ImageStore store;
+    @Autowired
+    ImageService imageService;
+    @Autowired
+    LruByteCache<ImageCacheKey> cache;
 
     @GetMapping("{name}")
-    public ResponseEntity<byte[]> viewImage(@PathVariable String name, @RequestParam(name = "type") String type) throws IOException {
-        String filePath = findFile(name, properties.getStorage().getImageRoot());
-        File image = new File(filePath);
-        if (!image.exists()) {
+    public ResponseEntity<Resource> viewImage(@PathVariable String name,
+                                              @RequestParam(name = "type", required = false) String type,
+                                              @RequestParam(name = "w", required = false) Integer width,
+                                              @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                              WebRequest request) throws IOException {
+        var variant = type == null ? Optional.of(ImageVariant.DISPLAY) : ImageVariant.fromType(type);
+        if (variant.isEmpty() || (width != null && width <= 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!store.exists(name)) {
             return ResponseEntity.notFound().build();
         }
-        byte[] content = getTypeImage(image, type);
-
+        var promised = imageService.peek(name, new ImageRendition(
+                variant.get(),
+                width == null ? null : imageService.snapWidth(width),
+                negotiateFormat(accept)));
+        // Image names are content hashes and never rewritten, so the rendition name is a strong validator.
+        String etag = "\"" + promised.fileName(name) + "\"";
+        long lastModified = store.lastModified(name);
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        // Only now is a missing rendition generated.
+        var rendition = imageService.resolve(name, promised);
+        var cacheControl = cacheControl();
+        // The last rendition slot went to another request in between: the fallback must not be cached under the
+        // ETag of the rendition that was promised.
+        if (!rendition.equals(promised)) cacheControl = CacheControl.noStore();
+        String fileName = rendition.fileName(name);
+        var resource = getRenditionResource(name, rendition);
+        if (resource == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Streamed by the resource converter; Range requests are answered with 206 and
+        // Content-Length/Content-Range are taken from the resource, so the image is never copied whole.
         return ResponseEntity.ok()
-                .header("Content-Type", Files.probeContentType(image.toPath()))
-                .header("Content-Disposition", "inline; filename=\"" + name + "\"")
-                .body(content);
+                .contentType(rendition.format().getMediaType())
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .header("Content-Disposition", "inline; filename=\"" + fileName + "\"")
+                .body(resource);
     }
 
-    private byte[] getTypeImage(File image, String type) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        switch (type.toUpperCase()) {
-            case "ICON" -> {
-                Thumbnails.of(image)
-                        .scale(0.1f)
-                        .toOutputStream(baos);
-                return baos.toByteArray();
-            }
-            case "DISPLAY" -> {
-                Thumbnails.of(image)
-                        .scale(1.0f)
-                        .toOutputStream(baos);
-                return baos.toByteArray();
-            }
-            case "MID-DISPLAY" -> {
-                Thumbnails.of(image)
-                        .scale(0.5f)
-                        .toOutputStream(baos);
-                return baos.toByteArray();
-            }
-            default -> {
-                return null;
+    // Highest-quality type the client accepts; wildcards get the stored WebP, and JPEG is the fallback.
+    private ImageFormat negotiateFormat(String accept) {
+        if (accept == null || accept.isBlank()) return ImageFormat.WEBP;
+        List<MediaType> types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) continue;
+            if (type.isWildcardType() || type.isWildcardSubtype()) return ImageFormat.WEBP;
+            for (ImageFormat format : ImageFormat.values()) {
+                if (format.getMediaType().isCompatibleWith(type) && format.isWritable()) return format;
             }
         }
+        return ImageFormat.JPEG;
     }
 
-    public String findFile(String fileName, String rootPath) {
-        try {
-            Optional<Path> result = Files.walk(Paths.get(rootPath))
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().equals(fileName))
-                    .findFirst();
-            return result.map(path -> path.toAbsolutePath().toString()).orElse(null);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    // Hot renditions are served from the off-heap cache; anything over the entry limit streams from the store.
+    private Resource getRenditionResource(String name, ImageRendition rendition) throws IOException {
+        String fileName = rendition.fileName(name);
+        var key = new ImageCacheKey(name, fileName);
+        var cached = cache.get(key);
+        if (cached != null) return new ByteBufferResource(cached, fileName);
+        var stored = imageService.getRendition(name, rendition);
+        if (stored == null || !cache.accepts(stored.contentLength())) return stored;
+        try (ReadableByteChannel channel = stored.readableChannel()) {
+            var buffer = ByteBuffer.allocateDirect((int) stored.contentLength());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            return new ByteBufferResource(cache.put(key, buffer.flip()), fileName);
         }
     }
+
+    private CacheControl cacheControl() {
+        var storage = properties.getStorage();
+        return CacheControl.maxAge(storage.getImageMaxAge())
+                .sMaxAge(storage.getImageSharedMaxAge())
+                .cachePublic()
+                .immutable();
+    }
 }
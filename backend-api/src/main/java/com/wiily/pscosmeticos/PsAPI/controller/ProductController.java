@@ -5,18 +5,37 @@ import com.wiily.pscosmeticos.PsAPI.domain.product.dto.datas.CreateProductData;
 import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductCreationData;
 import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductGetter;
 import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.InvalidCursor;
+import com.wiily.pscosmeticos.PsAPI.service.ProductCacheService;
+import com.wiily.pscosmeticos.PsAPI.service.ProductDocumentService;
+import com.wiily.pscosmeticos.PsAPI.service.ProductFacetIndex;
+import com.wiily.pscosmeticos.PsAPI.service.ProductImportService;
 import com.wiily.pscosmeticos.PsAPI.service.ProductService;
+import com.wiily.pscosmeticos.PsAPI.service.ProductSuggestionIndex;
+import com.wiily.pscosmeticos.PsAPI.service.SparseProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 
 @RestController
 @RequestMapping("/api/v1/produtos")
@@ -26,6 +45,22 @@ public class ProductController {
     ProductService service;
     @Autowired
     ProductRepository repository;
+    @Autowired
+    ProductCacheService productCacheService;
+    @Autowired
+    ApplicationEventPublisher events;
+    @Autowired
+    ProductSuggestionIndex suggestionIndex;
+    @Autowired
+    ProductFacetIndex facetIndex;
+    @Autowired
+    AppProperties properties;
+    @Autowired
+    SparseProductService sparseProductService;
+    @Autowired
+    ProductDocumentService documentService;
+    @Autowired
+    ProductImportService importService;
 
 
     @PostMapping
@@ -34,25 +69,81 @@ public class ProductController {
                                                 @RequestPart(name = "imagem") MultipartFile image,
                                                 UriComponentsBuilder uriBuilder) {
         var product = service.createProduct(data, image);
-        repository.save(product);
+        events.publishEvent(CatalogChangedEvent.product(product.getId()));
         var uri = uriBuilder.path("/api/v1/products").buildAndExpand(product.getId()).toUri();
         return ResponseEntity.created(uri).body(new ApiResponse(true, new ReturnProductCreationData(product)));
     }
     @GetMapping
-    public ResponseEntity<ApiResponse> getProducts(@PageableDefault(size = 12) Pageable pageable, @Param("category") String category) {
-        Page<ReturnProductGetter> page;
-        if (category != null) {
-            page = repository.findByCategoryNomeIgnoreCase(category, pageable).map(ReturnProductGetter::new);
-        } else {
-            page = repository.findAll(pageable).map(ReturnProductGetter::new);
+    public ResponseEntity<Object> getProducts(@PageableDefault(size = 12) Pageable pageable, @Param("category") String category,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(required = false) String order,
+                                              @RequestParam(required = false) String fields) throws JsonProcessingException {
+        // Passing "after" (empty for the first slice) or "order" switches to cursor pagination.
+        if (after != null || order != null) {
+            var productOrder = order == null ? ProductOrder.RECENT : ProductOrder.fromParam(order)
+                    .orElseThrow(() -> new InvalidCursor("The order '" + order + "' is not supported."));
+            int size = Math.min(pageable.getPageSize(), 100);
+            return ResponseEntity.ok(new ApiResponse(true, service.getProductSlice(category, after, productOrder, size)));
+        }
+        if (fields != null) {
+            var fieldSet = sparseProductService.fieldSet(fields);
+            return ResponseEntity.ok(new ApiResponse(true, service.getProducts(category, pageable, fieldSet)));
         }
-        return ResponseEntity.ok(new ApiResponse(true, page));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productCacheService.getProductPage(category, pageable));
+    }
+
+    @GetMapping("sugestoes")
+    public ResponseEntity<ApiResponse> suggestProducts(@RequestParam String prefix, @RequestParam(required = false) Integer limit) {
+        int max = properties.getCatalog().getSuggestionLimit();
+        int size = limit == null ? max : Math.clamp(limit, 1, max);
+        return ResponseEntity.ok(new ApiResponse(true, suggestionIndex.suggest(prefix, size)));
+    }
+
+    @GetMapping("lote")
+    public ResponseEntity<ApiResponse> getProductBatch(@RequestParam List<Long> ids, @RequestParam(required = false) String fields) {
+        var fieldSet = fields == null ? null : sparseProductService.fieldSet(fields);
+        return ResponseEntity.ok(new ApiResponse(true, service.getProductBatch(ids, fieldSet)));
+    }
+
+    // Facets are selected by repeating their parameter, e.g. ?tag=vegano&tag=sem-perfume&price=25-50.
+    @GetMapping("filtro")
+    public ResponseEntity<ApiResponse> filterProducts(@RequestParam MultiValueMap<String, String> params,
+                                                      @PageableDefault(size = 12) Pageable pageable) {
+        Map<ProductFacet, List<String>> selected = new EnumMap<>(ProductFacet.class);
+        params.forEach((param, values) -> ProductFacet.fromParam(param).ifPresent(f -> selected.put(f, values)));
+        return ResponseEntity.ok(new ApiResponse(true, facetIndex.filter(selected, pageable)));
+    }
+
+    @GetMapping("busca")
+    public ResponseEntity<ApiResponse> searchProducts(@RequestParam String q, @PageableDefault(size = 12) Pageable pageable) {
+        return ResponseEntity.ok(new ApiResponse(true, service.searchProducts(q.trim(), pageable)));
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<ApiResponse> getProduct(@PathVariable Long id) {
-        var product = repository.getReferenceById(id);
-        return ResponseEntity.ok(new ApiResponse(true, new ReturnProductGetter(product)));
+    public ResponseEntity<Object> getProduct(@PathVariable Long id, @RequestParam(required = false) String fields) throws JsonProcessingException {
+        // Sparse responses skip the body cache, which only holds the full document.
+        if (fields != null) {
+            return ResponseEntity.ok(new ApiResponse(true, service.getProduct(id, sparseProductService.fieldSet(fields))));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productCacheService.getProduct(id));
+    }
+
+    // Streams a CSV or NDJSON catalog of any size; rows that can't be imported are reported, not fatal.
+    @PostMapping(value = "importar", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ApiResponse> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                      InputStream body) throws IOException {
+        var format = ProductImportFormat.fromContentType(contentType).orElseThrow();
+        return ResponseEntity.ok(new ApiResponse(true, importService.importProducts(body, format)));
+    }
+
+    // Rewrites every product document, for after a migration or a manual change to the tables.
+    @PostMapping("documentos/reconstruir")
+    public ResponseEntity<ApiResponse> rebuildDocuments() {
+        return ResponseEntity.ok(new ApiResponse(true, Map.of("products", documentService.rebuild())));
     }
 
     @PutMapping("{id}")
@@ -68,8 +159,9 @@ public class ProductController {
     }
 
     @DeleteMapping("{id}")
+    @Transactional
     public ResponseEntity<ApiResponse> deleteProduct(@PathVariable Long id) {
-        repository.delete(repository.getReferenceById(id));
+        service.deleteProduct(id);
         return ResponseEntity.ok(new ApiResponse(true, null));
     }
 
@@ -5,8 +5,10 @@ import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
 import com.wiily.pscosmeticos.PsAPI.domain.subcategory.*;
 import com.wiily.pscosmeticos.PsAPI.domain.subcategory.dto.datas.CreateSubCategoryData;
 import com.wiily.pscosmeticos.PsAPI.domain.subcategory.dto.returns.ReturnSubCategoryData;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,8 @@ public class SubCategoryController {
     SubCategoryRepository repository;
     @Autowired
     CategoryRepository categoryRepository;
+    @Autowired
+    ApplicationEventPublisher events;
 
     @PostMapping
     @Transactional
@@ -31,6 +35,7 @@ public class SubCategoryController {
         System.out.println(cat.getNome() + " " + cat.getId());
         var sub = new SubCategory(data, cat);
         repository.save(sub);
+        events.publishEvent(CatalogChangedEvent.catalog());
         var uri = uriBuilder.path("/api/v1/subcategorias").buildAndExpand(sub.getId()).toUri();
         return ResponseEntity.created(uri).body(new ApiResponse(true, new ReturnSubCategoryData(sub)));
     }
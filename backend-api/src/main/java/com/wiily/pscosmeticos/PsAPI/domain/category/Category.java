@@ -1,6 +1,7 @@
 package com.wiily.pscosmeticos.PsAPI.domain.category;
 
 import com.wiily.pscosmeticos.PsAPI.domain.category.dto.datas.CreateCategoryData;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageStatus;
 import com.wiily.pscosmeticos.PsAPI.domain.product.Product;
 import com.wiily.pscosmeticos.PsAPI.domain.subcategory.SubCategory;
 import jakarta.persistence.*;
@@ -37,15 +38,23 @@ public class Category {
     @Column(name = "category_image_url")
     String imageUrl;
 
+    @Column(name = "category_image_status")
+    @Enumerated(EnumType.STRING)
+    ImageStatus imageStatus = ImageStatus.READY;
+
     @OneToMany(mappedBy = "category")
     List<Product> products;
 
     @OneToMany(mappedBy = "category")
     List<SubCategory> subCategories;
 
-    @Column(name = "category_total_products")
+    // Maintained by ProductCountService through update queries, never written from the entity.
+    @Column(name = "category_total_products", updatable = false)
     int totalProdutos;
 
+    @Column(name = "category_active_products", updatable = false)
+    int produtosAtivos;
+
     @Column(name = "category_active")
     Boolean ativo;
 
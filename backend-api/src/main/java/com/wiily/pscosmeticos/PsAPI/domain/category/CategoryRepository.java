@@ -1,6 +1,50 @@
 package com.wiily.pscosmeticos.PsAPI.domain.category;
 
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    long countByImageUrl(String imageUrl);
+
+    // The storefront counts only what shoppers can browse, so the tree carries the active counts.
+    @Query("""
+            select c.id, c.nome, c.slug, c.imageUrl,
+                   c.produtosAtivos, s.id, s.name, s.activeProducts
+            from Category c left join c.subCategories s
+            where c.ativo = true
+            order by c.nome, s.name""")
+    List<Object[]> findActiveTreeRows();
+
+    @Modifying
+    @Query("""
+            update Category c
+            set c.totalProdutos = c.totalProdutos + :total, c.produtosAtivos = c.produtosAtivos + :active
+            where c.id = :id""")
+    int adjustProductCounts(Long id, int total, int active);
+
+    // Recounts every category in one aggregate and rewrites only the rows that drifted.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update categories c set
+                category_total_products = coalesce(x.total, 0),
+                category_active_products = coalesce(x.active, 0)
+            from categories c2
+            left join (select product_category, count(*) total, count(*) filter (where product_active) active
+                       from products group by product_category) x on x.product_category = c2.category_id
+            where c.category_id = c2.category_id
+              and (c.category_total_products <> coalesce(x.total, 0) or c.category_active_products <> coalesce(x.active, 0))""",
+            nativeQuery = true)
+    int reconcileProductCounts();
+
+    @Modifying
+    @Transactional
+    @Query("update Category c set c.imageStatus = :status where c.imageUrl = :image")
+    int updateImageStatus(String image, ImageStatus status);
 }
@@ -0,0 +1,13 @@
+package com.wiily.pscosmeticos.PsAPI.domain.category.dto.returns;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductCardData;
+
+import java.util.List;
+
+// The whole active catalog in one document, so the storefront can boot from a single cacheable file.
+// No timestamp: the file is named by the hash of its content, so unchanged catalogs keep their version.
+public record ReturnCatalogSnapshot(
+        List<ReturnCategoryTree> categorias,
+        List<ReturnProductCardData> produtos
+) {
+}
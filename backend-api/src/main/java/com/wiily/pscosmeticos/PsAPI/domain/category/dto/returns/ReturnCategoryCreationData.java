@@ -7,6 +7,7 @@ public record ReturnCategoryCreationData(Long id,
                                          String slug,
                                          String descricao,
                                          String imagem,
+                                         String imageStatus,
                                          int totalprotudos,
                                          Boolean ativo) {
     public ReturnCategoryCreationData(Category category) {
@@ -16,6 +17,7 @@ public record ReturnCategoryCreationData(Long id,
                 category.getSlug(),
                 category.getDescricao(),
                 category.getImageUrl(),
+                category.getImageStatus().toString(),
                 category.getTotalProdutos(),
                 category.getAtivo()
         );
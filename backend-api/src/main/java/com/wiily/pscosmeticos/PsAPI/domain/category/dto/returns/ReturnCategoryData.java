@@ -8,7 +8,9 @@ public record ReturnCategoryData (
         String slug,
         String descricao,
         String imageUrl,
+        String imageStatus,
         int totalProdutos,
+        int produtosAtivos,
         boolean ativo
 ) {
     public ReturnCategoryData(Category c) {
@@ -18,7 +20,9 @@ public record ReturnCategoryData (
                 c.getSlug(),
                 c.getDescricao(),
                 c.getImageUrl(),
+                c.getImageStatus().toString(),
                 c.getTotalProdutos(),
+                c.getProdutosAtivos(),
                 c.getAtivo()
         );
     }
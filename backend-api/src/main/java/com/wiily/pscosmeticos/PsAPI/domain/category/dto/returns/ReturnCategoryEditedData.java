@@ -8,6 +8,7 @@ public record ReturnCategoryEditedData(
         String slug,
         String descricao,
         String imageUrl,
+        String imageStatus,
         int totalProdutos,
         boolean ativo
 ) {
@@ -18,6 +19,7 @@ public record ReturnCategoryEditedData(
                 c.getSlug(),
                 c.getDescricao(),
                 c.getImageUrl(),
+                c.getImageStatus().toString(),
                 c.getTotalProdutos(),
                 c.getAtivo()
         );
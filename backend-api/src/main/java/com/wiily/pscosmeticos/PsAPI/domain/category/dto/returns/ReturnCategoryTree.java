@@ -0,0 +1,19 @@
+package com.wiily.pscosmeticos.PsAPI.domain.category.dto.returns;
+
+import java.util.List;
+
+public record ReturnCategoryTree(
+        Long id,
+        String nome,
+        String slug,
+        String imageUrl,
+        long totalProdutos,
+        List<SubCategoryNode> subcategorias
+) {
+    public record SubCategoryNode(
+            Long id,
+            String nome,
+            long totalProdutos
+    ) {
+    }
+}
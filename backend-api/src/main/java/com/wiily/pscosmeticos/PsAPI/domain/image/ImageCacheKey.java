@@ -0,0 +1,4 @@
+package com.wiily.pscosmeticos.PsAPI.domain.image;
+
+public record ImageCacheKey(String name, String fileName) {
+}
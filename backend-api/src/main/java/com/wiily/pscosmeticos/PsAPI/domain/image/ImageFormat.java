@@ -0,0 +1,42 @@
+package com.wiily.pscosmeticos.PsAPI.domain.image;
+
+import org.springframework.http.MediaType;
+
+import javax.imageio.ImageIO;
+
+public enum ImageFormat {
+    AVIF("avif", "avif", MediaType.parseMediaType("image/avif")),
+    WEBP("webp", "webp", MediaType.parseMediaType("image/webp")),
+    JPEG("jpg", "jpg", MediaType.IMAGE_JPEG);
+
+    private final String writerName;
+    private final String extension;
+    private final MediaType mediaType;
+
+    ImageFormat(String writerName, String extension, MediaType mediaType) {
+        this.writerName = writerName;
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getWriterName() {
+        return writerName;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public boolean hasAlpha() {
+        return this != JPEG;
+    }
+
+    // AVIF is only offered when an ImageIO encoder for it is on the classpath.
+    public boolean isWritable() {
+        return ImageIO.getImageWritersByFormatName(writerName).hasNext();
+    }
+}
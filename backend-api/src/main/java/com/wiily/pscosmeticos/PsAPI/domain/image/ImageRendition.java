@@ -0,0 +1,34 @@
+package com.wiily.pscosmeticos.PsAPI.domain.image;
+
+import java.util.regex.Pattern;
+
+// What a GET asks for: a fixed variant or a breakpoint width, in a negotiated format.
+public record ImageRendition(ImageVariant variant, Integer width, ImageFormat format) {
+    private static final Pattern DERIVED_FILE = Pattern.compile(".*\\.(icon|mid-display|display|w\\d+)\\.[a-z]+$");
+    private static final Pattern PRECOMPUTED_FILE = Pattern.compile(".*\\.(icon|mid-display)\\.webp$");
+
+    public static ImageRendition of(ImageVariant variant) {
+        return new ImageRendition(variant, null, ImageFormat.WEBP);
+    }
+
+    // WebP variants are written at upload; every other rendition is generated on demand.
+    public boolean isPrecomputed() {
+        return width == null && format == ImageFormat.WEBP;
+    }
+
+    public String fileName(String originalName) {
+        if (isPrecomputed()) return variant.fileName(originalName);
+        int dot = originalName.lastIndexOf('.');
+        String base = dot < 0 ? originalName : originalName.substring(0, dot);
+        String label = width != null ? "w" + width : variant.getType().toLowerCase();
+        return base + "." + label + "." + format.getExtension();
+    }
+
+    public static boolean isDerivedFile(String fileName) {
+        return DERIVED_FILE.matcher(fileName).matches();
+    }
+
+    public static boolean isOnDemandFile(String fileName) {
+        return isDerivedFile(fileName) && !PRECOMPUTED_FILE.matcher(fileName).matches();
+    }
+}
@@ -0,0 +1,7 @@
+package com.wiily.pscosmeticos.PsAPI.domain.image;
+
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,41 @@
+package com.wiily.pscosmeticos.PsAPI.domain.image;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum ImageVariant {
+    ICON("ICON", 0.1),
+    MID_DISPLAY("MID-DISPLAY", 0.5),
+    DISPLAY("DISPLAY", 1.0);
+
+    private final String type;
+    private final double scale;
+
+    ImageVariant(String type, double scale) {
+        this.type = type;
+        this.scale = scale;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public static Optional<ImageVariant> fromType(String type) {
+        return Arrays.stream(values())
+                .filter(v -> v.type.equalsIgnoreCase(type))
+                .findFirst();
+    }
+
+    // DISPLAY is the stored original, the other variants live beside it as "<name>.<type>.<ext>".
+    public String fileName(String originalName) {
+        if (this == DISPLAY) return originalName;
+        int dot = originalName.lastIndexOf('.');
+        String suffix = "." + type.toLowerCase();
+        if (dot < 0) return originalName + suffix;
+        return originalName.substring(0, dot) + suffix + originalName.substring(dot);
+    }
+}
@@ -0,0 +1,9 @@
+package com.wiily.pscosmeticos.PsAPI.domain.image;
+
+import java.nio.file.Path;
+
+// An upload copied out of the request, waiting to be encoded and stored as imageName.
+public record StagedImage(Path upload,
+                          String imageName,
+                          String url) {
+}
@@ -1,6 +1,7 @@
 package com.wiily.pscosmeticos.PsAPI.domain.product;
 
 import com.wiily.pscosmeticos.PsAPI.domain.category.Category;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageStatus;
 import com.wiily.pscosmeticos.PsAPI.domain.product.ingredient.Ingredient;
 import com.wiily.pscosmeticos.PsAPI.domain.product.dto.datas.CreateProductData;
 import com.wiily.pscosmeticos.PsAPI.domain.product.tag.Tag;
@@ -42,6 +43,10 @@ public class Product {
     @Column(name = "product_image")
     String image;
 
+    @Column(name = "product_image_status")
+    @Enumerated(EnumType.STRING)
+    ImageStatus imageStatus = ImageStatus.READY;
+
     @JoinColumn(name = "product_category")
     @ManyToOne
     Category category;
@@ -0,0 +1,65 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.InvalidCursor;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Position after the last product of a slice: the order it was read in, its sort key and its id.
+// Encoded as opaque URL-safe Base64 so clients only pass it back.
+public record ProductCursor(ProductOrder order, String key, long id) {
+    // Sentinels that sort before every product, used for the first slice.
+    private static final LocalDateTime FIRST_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final BigDecimal FIRST_PRICE = BigDecimal.ONE.negate();
+
+    public static ProductCursor first(ProductOrder order) {
+        return switch (order) {
+            case RECENT -> new ProductCursor(order, FIRST_TIME.toString(), Long.MAX_VALUE);
+            case PRICE -> new ProductCursor(order, FIRST_PRICE.toPlainString(), 0);
+        };
+    }
+
+    // Cursor after a row of a slice query. Prices are written as exact decimals so the next query compares
+    // against the stored value and not a rounded one.
+    public static ProductCursor after(ProductOrder order, Object key, long id) {
+        return switch (order) {
+            case RECENT -> new ProductCursor(order, key.toString(), id);
+            case PRICE -> new ProductCursor(order, toDecimal(key).toPlainString(), id);
+        };
+    }
+
+    private static BigDecimal toDecimal(Object price) {
+        if (price instanceof BigDecimal decimal) return decimal;
+        // Double.toString is the shortest string that reads back as the same double.
+        return new BigDecimal(price.toString());
+    }
+
+    public LocalDateTime time() {
+        return LocalDateTime.parse(key);
+    }
+
+    public BigDecimal price() {
+        return new BigDecimal(key);
+    }
+
+    public String encode() {
+        String raw = order.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3) throw new IllegalArgumentException("Expected 3 parts");
+            var order = ProductOrder.valueOf(parts[0]);
+            var decoded = new ProductCursor(order, parts[1], Long.parseLong(parts[2]));
+            // Parse the key now so a tampered cursor fails here and not in the query.
+            if (order == ProductOrder.RECENT) decoded.time(); else decoded.price();
+            return decoded;
+        } catch (RuntimeException e) {
+            throw new InvalidCursor("The cursor '" + cursor + "' is not valid.");
+        }
+    }
+}
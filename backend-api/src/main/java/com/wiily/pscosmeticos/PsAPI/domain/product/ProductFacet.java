@@ -0,0 +1,30 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Facets the filter endpoint understands, by the request parameter that selects them.
+public enum ProductFacet {
+    CATEGORY("category"),
+    SUBCATEGORY("subcategory"),
+    TAG("tag"),
+    INGREDIENT("ingredient"),
+    PRICE("price"),
+    ACTIVE("active");
+
+    private final String param;
+
+    ProductFacet(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public static Optional<ProductFacet> fromParam(String param) {
+        return Arrays.stream(values())
+                .filter(f -> f.param.equalsIgnoreCase(param))
+                .findFirst();
+    }
+}
@@ -0,0 +1,62 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Fields a client can ask for with ?fields=, named as in ReturnProductGetter. Scalar and reference fields
+// map to the JPQL columns they need; collection fields are loaded by their own query only when asked for.
+public enum ProductField {
+    ID("id", Kind.SCALAR, "p.id"),
+    NAME("name", Kind.SCALAR, "p.name"),
+    SLUG("slug", Kind.SCALAR, "p.slug"),
+    TIPO("tipo", Kind.SCALAR, "p.type"),
+    CORES("cores", Kind.COLLECTION),
+    IMAGE_URL("imageURL", Kind.SCALAR, "p.image"),
+    IMAGE_STATUS("imageStatus", Kind.SCALAR, "p.imageStatus"),
+    CATEGORY("category", Kind.REFERENCE, "c.id", "c.nome"),
+    SUBCATEGORY("subcategory", Kind.REFERENCE, "s.id", "s.name"),
+    PRICE("price", Kind.SCALAR, "p.price"),
+    DISCOUNT_PRICE("discountPrice", Kind.SCALAR, "p.discountPrice"),
+    DESCRIPTION("description", Kind.SCALAR, "p.description"),
+    COMPLETE_DESCRIPTION("completeDescription", Kind.SCALAR, "p.completeDescription"),
+    INGREDIENTS("ingredients", Kind.COLLECTION),
+    HOW_TO_USE("howToUse", Kind.SCALAR, "p.howToUse"),
+    TAGS("tags", Kind.COLLECTION),
+    ACTIVE("active", Kind.SCALAR, "p.active"),
+    CREATE_AT("createAt", Kind.SCALAR, "p.createdTime"),
+    UPDATE_AT("updateAt", Kind.SCALAR, "p.updateTime");
+
+    public enum Kind {
+        SCALAR,
+        REFERENCE,
+        COLLECTION
+    }
+
+    private final String json;
+    private final Kind kind;
+    private final String[] columns;
+
+    ProductField(String json, Kind kind, String... columns) {
+        this.json = json;
+        this.kind = kind;
+        this.columns = columns;
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String[] getColumns() {
+        return columns;
+    }
+
+    public static Optional<ProductField> fromJson(String name) {
+        return Arrays.stream(values())
+                .filter(f -> f.json.equalsIgnoreCase(name))
+                .findFirst();
+    }
+}
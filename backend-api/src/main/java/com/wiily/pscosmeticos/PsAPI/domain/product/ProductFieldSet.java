@@ -0,0 +1,90 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A parsed ?fields= selection compiled once: the JPQL projection it needs and one writer per field,
+// so serializing a row is a fixed list of generator calls with no reflection. Like ReturnProductGetter's
+// NON_EMPTY, null values, empty strings and empty collections are left out.
+public class ProductFieldSet {
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(SparseProduct product, JsonGenerator gen) throws IOException;
+    }
+
+    private final Set<ProductField> fields;
+    private final String jpql;
+    private final List<FieldWriter> writers = new ArrayList<>();
+
+    public ProductFieldSet(Set<ProductField> requested) {
+        fields = EnumSet.copyOf(requested);
+        // Column 0 is always the id, used to assemble the collections.
+        List<String> columns = new ArrayList<>(List.of("p.id"));
+        for (ProductField field : fields) {
+            int at = columns.size();
+            String name = field.getJson();
+            switch (field.getKind()) {
+                case SCALAR -> writers.add((p, gen) -> {
+                    Object value = p.row()[at];
+                    if (value == null || value instanceof String text && text.isEmpty()) return;
+                    gen.writeFieldName(name);
+                    writeScalar(value, gen);
+                });
+                case REFERENCE -> writers.add((p, gen) -> {
+                    gen.writeObjectFieldStart(name);
+                    gen.writeObjectField("id", p.row()[at]);
+                    gen.writeObjectField("nome", p.row()[at + 1] == null && field == ProductField.SUBCATEGORY
+                            ? "Sem subcategoria" : p.row()[at + 1]);
+                    gen.writeEndObject();
+                });
+                case COLLECTION -> writers.add((p, gen) -> {
+                    Object values = switch (field) {
+                        case CORES -> p.cores().isEmpty() ? null : p.cores();
+                        case INGREDIENTS -> p.ingredients().isEmpty() ? null : p.ingredients();
+                        default -> p.tags().isEmpty() ? null : p.tags();
+                    };
+                    if (values == null) return;
+                    gen.writeFieldName(name);
+                    gen.writeObject(values);
+                });
+            }
+            columns.addAll(List.of(field.getColumns()));
+        }
+        jpql = "select " + String.join(", ", columns)
+                + " from Product p join p.category c left join p.subCategory s where p.id in :ids";
+    }
+
+    private static void writeScalar(Object value, JsonGenerator gen) throws IOException {
+        if (value instanceof Enum<?> e) gen.writeString(e.toString());
+        else gen.writeObject(value);
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public boolean has(ProductField field) {
+        return fields.contains(field);
+    }
+
+    public void write(SparseProduct product, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        for (FieldWriter writer : writers) writer.write(product, gen);
+        gen.writeEndObject();
+    }
+
+    public SparseProduct bind(Object[] row, Map<Long, Map<String, String>> cores,
+                              Map<Long, List<String>> ingredients, Map<Long, List<String>> tags) {
+        Long id = (Long) row[0];
+        return new SparseProduct(this, row,
+                cores.getOrDefault(id, Map.of()),
+                ingredients.getOrDefault(id, List.of()),
+                tags.getOrDefault(id, List.of()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum ProductImportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final MediaType mediaType;
+
+    ProductImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static Optional<ProductImportFormat> fromContentType(String contentType) {
+        if (contentType == null) return Optional.empty();
+        var type = MediaType.parseMediaType(contentType);
+        return Arrays.stream(values())
+                .filter(f -> f.mediaType.isCompatibleWith(type))
+                .findFirst();
+    }
+}
@@ -0,0 +1,16 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+// Orders supported by cursor pagination; each one is backed by a (key, id) index.
+public enum ProductOrder {
+    RECENT,
+    PRICE;
+
+    public static Optional<ProductOrder> fromParam(String param) {
+        return Arrays.stream(values())
+                .filter(o -> o.name().equalsIgnoreCase(param))
+                .findFirst();
+    }
+}
@@ -0,0 +1,5 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+// Identifies a rendered listing page; the catalog version makes pages rendered before a write unreachable.
+public record ProductPageKey(long version, String category, int page, int size, String sort) {
+}
@@ -0,0 +1,16 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import com.wiily.pscosmeticos.PsAPI.domain.category.Category;
+import com.wiily.pscosmeticos.PsAPI.domain.subcategory.SubCategory;
+
+// What a product contributes to the category counts: where it sits and whether it is active.
+public record ProductPlacement(Long categoryId, Long subCategoryId, boolean active) {
+    public static ProductPlacement of(Product p) {
+        Category category = p.getCategory();
+        SubCategory subCategory = p.getSubCategory();
+        return new ProductPlacement(
+                category == null ? null : category.getId(),
+                subCategory == null ? null : subCategory.getId(),
+                Boolean.TRUE.equals(p.getActive()));
+    }
+}
@@ -1,14 +1,171 @@
 package com.wiily.pscosmeticos.PsAPI.domain.product;
 
 import com.wiily.pscosmeticos.PsAPI.domain.category.Category;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageStatus;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductCardData;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByCategoryNomeIgnoreCase(String categoryName, Pageable pageable);
+    // Listing pages are fetched in two phases: the ids of the page, then the products with their associations.
+    @Query("select p.id from Product p")
+    Page<Long> findPageIds(Pageable pageable);
 
-    List<Product> findByCategory(Category category);
+    @Query("select p.id from Product p where lower(p.category.nome) = lower(:categoryName)")
+    Page<Long> findPageIdsByCategoryNome(String categoryName, Pageable pageable);
+
+    // Keyset slices return (id, sort key) rows; size + 1 rows are read to know if another slice follows.
+    @Query("""
+            select p.id, p.createdTime from Product p
+            where p.createdTime < :time or (p.createdTime = :time and p.id < :id)
+            order by p.createdTime desc, p.id desc""")
+    List<Object[]> findRecentAfter(LocalDateTime time, long id, Limit limit);
+
+    @Query("""
+            select p.id, p.createdTime from Product p
+            where lower(p.category.nome) = lower(:categoryName)
+              and (p.createdTime < :time or (p.createdTime = :time and p.id < :id))
+            order by p.createdTime desc, p.id desc""")
+    List<Object[]> findRecentAfterByCategoryNome(String categoryName, LocalDateTime time, long id, Limit limit);
+
+    // Native, so the exact BigDecimal is bound as numeric without a cast; JPQL would round it to numeric(38,2),
+    // or compare the numeric column as a double and lose the price index.
+    @Query(value = """
+            select p.product_id, p.product_price from products p
+            where p.product_price > :price or (p.product_price = :price and p.product_id > :id)
+            order by p.product_price, p.product_id""",
+            nativeQuery = true)
+    List<Object[]> findPriceAfter(BigDecimal price, long id, Limit limit);
+
+    @Query(value = """
+            select p.product_id, p.product_price from products p
+            join categories c on c.category_id = p.product_category
+            where lower(c.category_name) = lower(:categoryName)
+              and (p.product_price > :price or (p.product_price = :price and p.product_id > :id))
+            order by p.product_price, p.product_id""",
+            nativeQuery = true)
+    List<Object[]> findPriceAfterByCategoryNome(String categoryName, BigDecimal price, long id, Limit limit);
+
+    // Full-text matches, ranked; name similarity only breaks ties.
+    @Query(value = """
+            select p.product_id from products p,
+                websearch_to_tsquery('pt_unaccent', :q) query,
+                immutable_unaccent(lower(:q)) term
+            where p.product_search @@ query
+            order by ts_rank_cd(p.product_search, query) + similarity(immutable_unaccent(lower(p.product_name)), term) desc,
+                     p.product_id""",
+            countQuery = """
+            select count(*) from products p, websearch_to_tsquery('pt_unaccent', :q) query
+            where p.product_search @@ query""",
+            nativeQuery = true)
+    Page<Long> searchIds(String q, Pageable pageable);
+
+    // Trigram similarity on the name, for typos the stemmer can't match.
+    @Query(value = """
+            select p.product_id from products p, immutable_unaccent(lower(:q)) term
+            where immutable_unaccent(lower(p.product_name)) % term
+            order by similarity(immutable_unaccent(lower(p.product_name)), term) desc, p.product_id""",
+            countQuery = """
+            select count(*) from products p, immutable_unaccent(lower(:q)) term
+            where immutable_unaccent(lower(p.product_name)) % term""",
+            nativeQuery = true)
+    Page<Long> searchSimilarIds(String q, Pageable pageable);
+
+    // Card rows are plain records, so Hibernate keeps no entity or dirty-checking snapshot for them.
+    @Query("""
+            select new com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductCardData(
+                p.id, p.name, p.slug, p.image, p.imageStatus, p.price, p.discountPrice, c.nome)
+            from Product p join p.category c
+            where p.id in :ids""")
+    List<ReturnProductCardData> findCardsByIdIn(Collection<Long> ids);
+
+    @Query("select p.id, t.name from Product p join p.tags t where p.id in :ids")
+    List<Object[]> findTagNamesByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"category", "subCategory", "multiColor"})
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // Both collections are bags, so each gets its own query to avoid a cartesian product.
+    @Query("select distinct p from Product p left join fetch p.ingredientList where p.id in :ids")
+    List<Product> fetchIngredients(Collection<Long> ids);
+
+    @Query("select distinct p from Product p left join fetch p.tags where p.id in :ids")
+    List<Product> fetchTags(Collection<Long> ids);
+
+    boolean existsByCategory(Category category);
+
+    long countByImage(String image);
+
+    @Query("select p.id from Product p where p.image = :image")
+    List<Long> findIdsByImage(String image);
+
+    @Query("select p.id from Product p order by p.id")
+    List<Long> findAllIds();
+
+    @Query(value = "select cast(product_document as text) from product_documents where product_id = :id", nativeQuery = true)
+    Optional<String> findDocument(Long id);
+
+    @Query(value = "select product_id, cast(product_card as text) from product_documents where product_id in :ids", nativeQuery = true)
+    List<Object[]> findCardDocuments(Collection<Long> ids);
+
+    @Query(value = "select count(*) from product_documents", nativeQuery = true)
+    long countDocuments();
+
+    @Modifying
+    @Query(value = """
+            insert into product_documents (product_id, product_document, product_card, document_update_at)
+            values (:id, cast(:document as jsonb), cast(:card as jsonb), now())
+            on conflict (product_id) do update set
+                product_document = excluded.product_document,
+                product_card = excluded.product_card,
+                document_update_at = excluded.document_update_at""",
+            nativeQuery = true)
+    void upsertDocument(Long id, String document, String card);
+
+    @Query("select p.id from Product p where p.active = true order by p.id")
+    List<Long> findActiveIds();
+
+    @Query("select p.id, p.name from Product p")
+    List<Object[]> findAllIdsAndNames();
+
+    @Query("select p.id, p.name from Product p where p.id in :ids")
+    List<Object[]> findIdsAndNamesByIdIn(Collection<Long> ids);
+
+    @Query("select p.id, c.nome, s.name, p.price, p.active from Product p join p.category c left join p.subCategory s")
+    List<Object[]> findFacetRows();
+
+    @Query("select p.id, c.nome, s.name, p.price, p.active from Product p join p.category c left join p.subCategory s where p.id in :ids")
+    List<Object[]> findFacetRowsByIdIn(Collection<Long> ids);
+
+    @Query("select p.id, t.name from Product p join p.tags t")
+    List<Object[]> findAllTagNames();
+
+    @Query("select p.id, i.ingredient from Product p join p.ingredientList i")
+    List<Object[]> findAllIngredientNames();
+
+    @Query("select p.id, key(m), value(m) from Product p join p.multiColor m where p.id in :ids")
+    List<Object[]> findColorsByIdIn(Collection<Long> ids);
+
+    @Query("select p.id, i.ingredient from Product p join p.ingredientList i where p.id in :ids")
+    List<Object[]> findIngredientNamesByIdIn(Collection<Long> ids);
+
+    @Query("select p.id from Product p where p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.imageStatus = :status where p.image = :image")
+    int updateImageStatus(String image, ImageStatus status);
 }
@@ -0,0 +1,29 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+// One projected product row; it serializes itself through the writers compiled in its field set.
+@JsonSerialize(using = SparseProduct.Serializer.class)
+public record SparseProduct(ProductFieldSet fieldSet,
+                            Object[] row,
+                            Map<String, String> cores,
+                            List<String> ingredients,
+                            List<String> tags) {
+    public Long id() {
+        return (Long) row[0];
+    }
+
+    public static class Serializer extends JsonSerializer<SparseProduct> {
+        @Override
+        public void serialize(SparseProduct value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            value.fieldSet().write(value, gen);
+        }
+    }
+}
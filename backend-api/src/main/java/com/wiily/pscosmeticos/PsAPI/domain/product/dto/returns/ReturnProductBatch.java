@@ -0,0 +1,8 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns;
+
+import java.util.List;
+
+// Products in the order they were requested; ids that don't exist are listed instead of failing the batch.
+public record ReturnProductBatch<T>(List<T> products,
+                                    List<Long> missing) {
+}
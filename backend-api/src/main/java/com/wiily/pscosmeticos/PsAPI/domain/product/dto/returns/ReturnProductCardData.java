@@ -0,0 +1,33 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageStatus;
+
+import java.util.List;
+
+// Card fields for listing pages, read straight from a JPQL constructor expression instead of a managed Product.
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ReturnProductCardData(Long id,
+                                    String name,
+                                    String slug,
+                                    String imageURL,
+                                    String imageStatus,
+                                    double price,
+                                    double discountPrice,
+                                    String category,
+                                    List<String> tags) {
+    public ReturnProductCardData(Long id,
+                                 String name,
+                                 String slug,
+                                 String imageURL,
+                                 ImageStatus imageStatus,
+                                 double price,
+                                 double discountPrice,
+                                 String category) {
+        this(id, name, slug, imageURL, imageStatus.toString(), price, discountPrice, category, List.of());
+    }
+
+    public ReturnProductCardData withTags(List<String> tags) {
+        return new ReturnProductCardData(id, name, slug, imageURL, imageStatus, price, discountPrice, category, tags);
+    }
+}
@@ -14,6 +14,7 @@ public record ReturnProductCreationData(Long id,
                                         String slug,
                                         String tipo,
                                         String imageURL,
+                                        String imageStatus,
                                         String category,
                                         String sub_category,
                                         Map<String, String> cores,
@@ -32,6 +33,7 @@ public record ReturnProductCreationData(Long id,
                 p.getSlug(),
                 p.getType().toString(),
                 p.getImage(),
+                p.getImageStatus().toString(),
                 p.getCategory().getNome(),
                 Optional.ofNullable(p.getSubCategory())
                         .map(SubCategory::getName)
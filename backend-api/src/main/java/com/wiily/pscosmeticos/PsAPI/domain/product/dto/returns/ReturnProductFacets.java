@@ -0,0 +1,10 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns;
+
+import java.util.List;
+import java.util.Map;
+
+// Matching ids for the requested page, the total match count, and the count of every value of every facet.
+public record ReturnProductFacets(List<Long> ids,
+                                  int total,
+                                  Map<String, Map<String, Integer>> facets) {
+}
@@ -19,6 +19,7 @@ public record ReturnProductGetter(Long id,
                                   String tipo,
                                   Map<String, String> cores,
                                   String imageURL,
+                                  String imageStatus,
                                   CategoryRecord category,
                                   SubCategoryRecord subcategory,
                                   double price,
@@ -39,6 +40,7 @@ public record ReturnProductGetter(Long id,
                 p.getType().toString(),
                 p.getMultiColor(),
                 p.getImage(),
+                p.getImageStatus().toString(),
                 new CategoryRecord(p.getCategory()),
                 new SubCategoryRecord(p.getSubCategory()),
                 p.getPrice(),
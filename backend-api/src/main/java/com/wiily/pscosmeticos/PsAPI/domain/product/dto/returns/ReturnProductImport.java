@@ -0,0 +1,13 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns;
+
+import java.util.List;
+
+// Outcome of a bulk import; "rejeicoes" is capped, "rejeitados" always counts every rejected row.
+public record ReturnProductImport(long importados,
+                                  long rejeitados,
+                                  long duracaoMs,
+                                  double linhasPorSegundo,
+                                  List<RejectedRow> rejeicoes) {
+    public record RejectedRow(long linha, String motivo) {
+    }
+}
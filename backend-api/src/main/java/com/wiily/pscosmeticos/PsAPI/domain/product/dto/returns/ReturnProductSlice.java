@@ -0,0 +1,10 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns;
+
+import java.util.List;
+
+// A cursor page: no total count, only whether more products follow and where to continue.
+public record ReturnProductSlice(List<ReturnProductCardData> content,
+                                 int size,
+                                 boolean hasNext,
+                                 String nextCursor) {
+}
@@ -0,0 +1,5 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns;
+
+public record ReturnProductSuggestion(Long id,
+                                      String name) {
+}
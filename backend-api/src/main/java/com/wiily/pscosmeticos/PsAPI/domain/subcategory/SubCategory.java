@@ -30,9 +30,16 @@ public class SubCategory {
     @ManyToOne
     Category category;
 
-    @OneToMany
+    @OneToMany(mappedBy = "subCategory")
     List<Product> product;
 
+    // Maintained by ProductCountService through update queries, never written from the entity.
+    @Column(name = "sub_category_total_products", updatable = false)
+    int totalProducts;
+
+    @Column(name = "sub_category_active_products", updatable = false)
+    int activeProducts;
+
     public SubCategory(CreateSubCategoryData data, Category cat) {
         name = data.name();
         category = cat;
@@ -2,7 +2,9 @@ package com.wiily.pscosmeticos.PsAPI.domain.subcategory;
 
 import com.wiily.pscosmeticos.PsAPI.domain.category.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,4 +16,25 @@ public interface SubCategoryRepository extends JpaRepository<SubCategory, Long>
             AND s.category = :category
             """)
     Optional<SubCategory> subCategoryFindByCategory(Category category, int sub_category_id);
+
+    @Modifying
+    @Query("""
+            update SubCategory s
+            set s.totalProducts = s.totalProducts + :total, s.activeProducts = s.activeProducts + :active
+            where s.id = :id""")
+    int adjustProductCounts(Long id, int total, int active);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update sub_categories s set
+                sub_category_total_products = coalesce(x.total, 0),
+                sub_category_active_products = coalesce(x.active, 0)
+            from sub_categories s2
+            left join (select product_sub_category, count(*) total, count(*) filter (where product_active) active
+                       from products group by product_sub_category) x on x.product_sub_category = s2.sub_category_id
+            where s.sub_category_id = s2.sub_category_id
+              and (s.sub_category_total_products <> coalesce(x.total, 0) or s.sub_category_active_products <> coalesce(x.active, 0))""",
+            nativeQuery = true)
+    int reconcileProductCounts();
 }
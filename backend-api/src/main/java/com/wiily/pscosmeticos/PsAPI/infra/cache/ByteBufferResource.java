@@ -0,0 +1,69 @@
+package com.wiily.pscosmeticos.PsAPI.infra.cache;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// Exposes a cached buffer as a Resource, so it goes through the same Range/Content-Length handling as files.
+public class ByteBufferResource extends AbstractResource {
+    private final ByteBuffer buffer;
+    private final String filename;
+
+    public ByteBufferResource(ByteBuffer buffer, String filename) {
+        this.buffer = buffer;
+        this.filename = filename;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Cached buffer [" + filename + "]";
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        ByteBuffer view = buffer.duplicate();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return view.hasRemaining() ? view.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (len == 0) return 0;
+                if (!view.hasRemaining()) return -1;
+                int n = Math.min(len, view.remaining());
+                view.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public long skip(long n) {
+                int skipped = (int) Math.max(0, Math.min(n, view.remaining()));
+                view.position(view.position() + skipped);
+                return skipped;
+            }
+
+            @Override
+            public int available() {
+                return view.remaining();
+            }
+        };
+    }
+}
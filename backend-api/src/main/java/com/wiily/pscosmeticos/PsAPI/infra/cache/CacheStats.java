@@ -0,0 +1,10 @@
+package com.wiily.pscosmeticos.PsAPI.infra.cache;
+
+public record CacheStats(long hits,
+                         long misses,
+                         long evictions,
+                         double hitRatio,
+                         int entries,
+                         long bytes,
+                         long maxBytes) {
+}
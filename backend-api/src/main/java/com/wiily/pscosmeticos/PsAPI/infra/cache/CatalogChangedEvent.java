@@ -0,0 +1,25 @@
+package com.wiily.pscosmeticos.PsAPI.infra.cache;
+
+import java.util.Collection;
+import java.util.List;
+
+// Published by write paths once products or the categories they embed change; caches drop what it names after commit.
+// wholeCatalog marks a change that may have touched every product, like a document rebuild after manual table edits.
+public record CatalogChangedEvent(Collection<Long> productIds, boolean wholeCatalog) {
+    // A write that changes listings without touching a cached product, like a new product or category.
+    public static CatalogChangedEvent catalog() {
+        return new CatalogChangedEvent(List.of(), false);
+    }
+
+    public static CatalogChangedEvent products(Collection<Long> productIds) {
+        return new CatalogChangedEvent(productIds, false);
+    }
+
+    public static CatalogChangedEvent product(Long productId) {
+        return new CatalogChangedEvent(List.of(productId), false);
+    }
+
+    public static CatalogChangedEvent allProducts() {
+        return new CatalogChangedEvent(List.of(), true);
+    }
+}
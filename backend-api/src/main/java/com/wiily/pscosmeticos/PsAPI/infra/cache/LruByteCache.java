@@ -0,0 +1,86 @@
+package com.wiily.pscosmeticos.PsAPI.infra.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// LRU cache bounded by the total size of its values, which are kept in direct (off-heap) buffers.
+public class LruByteCache<K> {
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<K, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruByteCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    // Returns a read-only view positioned at the start of the value, or null on a miss.
+    public synchronized ByteBuffer get(K key) {
+        var value = entries.get(key);
+        if (value == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return value.asReadOnlyBuffer();
+    }
+
+    public boolean accepts(long size) {
+        return size <= maxEntryBytes;
+    }
+
+    public ByteBuffer put(K key, byte[] value) {
+        var buffer = ByteBuffer.allocateDirect(value.length).put(value).flip();
+        return put(key, buffer);
+    }
+
+    // Values larger than the entry limit are not cached; the buffer is returned either way.
+    public synchronized ByteBuffer put(K key, ByteBuffer value) {
+        int size = value.remaining();
+        if (!accepts(size)) return value.asReadOnlyBuffer();
+        var previous = entries.put(key, value);
+        if (previous != null) bytes -= previous.remaining();
+        bytes += size;
+        Iterator<ByteBuffer> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().remaining();
+            eldest.remove();
+            evictions++;
+        }
+        return value.asReadOnlyBuffer();
+    }
+
+    public synchronized void invalidate(K key) {
+        var previous = entries.remove(key);
+        if (previous != null) bytes -= previous.remaining();
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        Iterator<Map.Entry<K, ByteBuffer>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            var entry = it.next();
+            if (predicate.test(entry.getKey())) {
+                bytes -= entry.getValue().remaining();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        long lookups = hits + misses;
+        return new CacheStats(hits, misses, evictions, lookups == 0 ? 0 : (double) hits / lookups,
+                entries.size(), bytes, maxBytes);
+    }
+}
@@ -4,6 +4,10 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
 
 @Setter
 @Getter
@@ -13,13 +17,43 @@ public class AppProperties {
 
     private Storage storage = new Storage();
     private Api api = new Api();
+    private Catalog catalog = new Catalog();
 
     @Setter
     @Getter
     public static class Storage {
+        private String type = "filesystem";
         private String imageRoot;
-        private String imageProductRoot;
-        private String imageCategoryRoot;
+        private boolean backfillVariants = true;
+        private Duration imageMaxAge = Duration.ofDays(365);
+        private Duration imageSharedMaxAge = Duration.ofDays(365);
+        private DataSize imageCacheSize = DataSize.ofMegabytes(64);
+        private DataSize imageCacheMaxEntrySize = DataSize.ofMegabytes(2);
+        private int ingestionWorkers = 2;
+        private int ingestionQueueCapacity = 32;
+        private List<Integer> imageWidths = List.of(160, 320, 480, 640, 960, 1280);
+        private int maxRenditions = 50000;
+        private long maxImagePixels = 50_000_000;
+        private int decodeMaxDimension = 2560;
+        private int decodePixelBudget = 48_000_000;
+
+    }
+
+    @Setter
+    @Getter
+    public static class Catalog {
+        private DataSize productCacheSize = DataSize.ofMegabytes(16);
+        private DataSize productCacheMaxEntrySize = DataSize.ofKilobytes(256);
+        private DataSize pageCacheSize = DataSize.ofMegabytes(16);
+        private DataSize pageCacheMaxEntrySize = DataSize.ofKilobytes(512);
+        private int suggestionLimit = 8;
+        private List<Integer> priceBands = List.of(25, 50, 100, 200);
+        private int maxBatchSize = 50;
+        private Duration countReconcileInterval = Duration.ofHours(1);
+        private String snapshotRoot = "snapshots";
+        private Duration snapshotDebounce = Duration.ofSeconds(5);
+        private int importChunkSize = 500;
+        private int importMaxRejections = 1000;
 
     }
 
@@ -0,0 +1,29 @@
+package com.wiily.pscosmeticos.PsAPI.infra.config;
+
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageCacheKey;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductPageKey;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.LruByteCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public LruByteCache<ImageCacheKey> imageVariantCache(AppProperties properties) {
+        var storage = properties.getStorage();
+        return new LruByteCache<>(storage.getImageCacheSize().toBytes(), storage.getImageCacheMaxEntrySize().toBytes());
+    }
+
+    @Bean
+    public LruByteCache<Long> productCache(AppProperties properties) {
+        var catalog = properties.getCatalog();
+        return new LruByteCache<>(catalog.getProductCacheSize().toBytes(), catalog.getProductCacheMaxEntrySize().toBytes());
+    }
+
+    @Bean
+    public LruByteCache<ProductPageKey> pageCache(AppProperties properties) {
+        var catalog = properties.getCatalog();
+        return new LruByteCache<>(catalog.getPageCacheSize().toBytes(), catalog.getPageCacheMaxEntrySize().toBytes());
+    }
+}
@@ -1,12 +1,18 @@
 package com.wiily.pscosmeticos.PsAPI.infra.exception;
 
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.BatchTooLarge;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.CategoryNotExist;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ImageIsNull;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ImageQueueFull;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ImageTooLarge;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.InvalidCursor;
 import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ProductTypeNotExists;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.SubCategoryNotBelongToCategory;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.UnknownField;
 import jakarta.persistence.EntityNotFoundException;
 import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -96,6 +102,29 @@ public class ErrorTreatment {
     public ResponseEntity<ApiResponse> imageNullError(ImageIsNull e) {
         return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMap()));
     }
+    @ExceptionHandler(ImageQueueFull.class)
+    public ResponseEntity<ApiResponse> imageQueueFull(ImageQueueFull e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "5")
+                .body(new ApiResponse(false, "I.QFULL", e.getMessage()));
+    }
+    @ExceptionHandler(ImageTooLarge.class)
+    public ResponseEntity<ApiResponse> imageTooLarge(ImageTooLarge e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ApiResponse(false, "I.LARGE", e.getMessage()));
+    }
+    @ExceptionHandler(InvalidCursor.class)
+    public ResponseEntity<ApiResponse> invalidCursor(InvalidCursor e) {
+        return ResponseEntity.badRequest().body(new ApiResponse(false, "P.CURSOR", e.getMessage()));
+    }
+    @ExceptionHandler(BatchTooLarge.class)
+    public ResponseEntity<ApiResponse> batchTooLarge(BatchTooLarge e) {
+        return ResponseEntity.badRequest().body(new ApiResponse(false, "P.BATCH", e.getMessage()));
+    }
+    @ExceptionHandler(UnknownField.class)
+    public ResponseEntity<ApiResponse> unknownField(UnknownField e) {
+        return ResponseEntity.badRequest().body(new ApiResponse(false, "P.FIELDS", e.getMessage()));
+    }
     @ExceptionHandler(CategoryNotExist.class)
     public ResponseEntity<ApiResponse> categoryNotExist(CategoryNotExist e) {
         return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMap()));
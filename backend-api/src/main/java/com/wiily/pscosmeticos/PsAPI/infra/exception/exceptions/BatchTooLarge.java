@@ -0,0 +1,7 @@
+package com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions;
+
+public class BatchTooLarge extends RuntimeException {
+    public BatchTooLarge(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions;
+
+public class ImageQueueFull extends RuntimeException {
+    public ImageQueueFull(String message) {
+        super(message);
+    }
+}
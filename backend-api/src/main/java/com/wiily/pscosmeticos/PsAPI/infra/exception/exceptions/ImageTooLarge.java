@@ -0,0 +1,7 @@
+package com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions;
+
+public class ImageTooLarge extends RuntimeException {
+    public ImageTooLarge(String message) {
+        super(message);
+    }
+}
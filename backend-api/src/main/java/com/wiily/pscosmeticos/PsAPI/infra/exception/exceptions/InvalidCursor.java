@@ -0,0 +1,7 @@
+package com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions;
+
+public class InvalidCursor extends RuntimeException {
+    public InvalidCursor(String message) {
+        super(message);
+    }
+}
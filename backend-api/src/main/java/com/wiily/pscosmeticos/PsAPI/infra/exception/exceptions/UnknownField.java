@@ -0,0 +1,7 @@
+package com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions;
+
+public class UnknownField extends RuntimeException {
+    public UnknownField(String message) {
+        super(message);
+    }
+}
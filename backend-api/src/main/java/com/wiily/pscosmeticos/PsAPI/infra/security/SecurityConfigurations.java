@@ -28,6 +28,7 @@ public class SecurityConfigurations {
                     req.requestMatchers(HttpMethod.POST, "/api/v1/login").permitAll();
                     req.requestMatchers(HttpMethod.OPTIONS, "/**").permitAll();
                     req.requestMatchers("/v3/api-docs/**","/swagger-ui.html", "/swagger-ui/**").permitAll();
+                    req.requestMatchers("/api/v1/cache/**").authenticated();
                     req.requestMatchers(HttpMethod.GET).permitAll();
                     req.anyRequest().authenticated();
                 })
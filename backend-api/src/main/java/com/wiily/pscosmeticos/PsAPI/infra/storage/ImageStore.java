@@ -0,0 +1,31 @@
+package com.wiily.pscosmeticos.PsAPI.infra.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// Where image files live. Names are flat (e.g. "<sha256>.webp", "<sha256>.w320.jpg"); layout is up to the store.
+public interface ImageStore {
+
+    boolean exists(String name);
+
+    // Null when nothing is stored under the name.
+    Resource get(String name);
+
+    long lastModified(String name) throws IOException;
+
+    // Readers never see a partially written file: the content becomes visible only once the writer returns.
+    void put(String name, ImageWriter writer) throws IOException;
+
+    boolean delete(String name) throws IOException;
+
+    // Every stored name starting with prefix; a prefix up to the first '.' must be answerable without a full scan.
+    List<String> list(String prefix) throws IOException;
+
+    @FunctionalInterface
+    interface ImageWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
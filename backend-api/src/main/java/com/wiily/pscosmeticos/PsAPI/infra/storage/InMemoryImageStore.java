@@ -0,0 +1,58 @@
+package com.wiily.pscosmeticos.PsAPI.infra.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Heap-backed store for tests and benchmarks (app.storage.type=memory); nothing survives a restart.
+@Component
+@ConditionalOnProperty(prefix = "app.storage", name = "type", havingValue = "memory")
+public class InMemoryImageStore implements ImageStore {
+    private final Map<String, StoredImage> images = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean exists(String name) {
+        return images.containsKey(name);
+    }
+
+    @Override
+    public Resource get(String name) {
+        var image = images.get(name);
+        return image == null ? null : new ByteArrayResource(image.content(), name);
+    }
+
+    @Override
+    public long lastModified(String name) throws IOException {
+        var image = images.get(name);
+        if (image == null) throw new FileNotFoundException(name);
+        return image.lastModified();
+    }
+
+    @Override
+    public void put(String name, ImageWriter writer) throws IOException {
+        var out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        images.put(name, new StoredImage(out.toByteArray(), System.currentTimeMillis()));
+    }
+
+    @Override
+    public boolean delete(String name) {
+        return images.remove(name) != null;
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        return images.keySet().stream().filter(name -> name.startsWith(prefix)).toList();
+    }
+
+    private record StoredImage(byte[] content, long lastModified) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.wiily.pscosmeticos.PsAPI.infra.storage;
+
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Keeps every file at imageRoot/ab/cd/<name>, where abcd starts the SHA-256 of the name up to its first '.'.
+// An image and all of its renditions therefore share one small directory, and no directory grows unbounded.
+@Component
+@ConditionalOnProperty(prefix = "app.storage", name = "type", havingValue = "filesystem", matchIfMissing = true)
+public class ShardedFileSystemImageStore implements ImageStore {
+    @Autowired
+    AppProperties properties;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(properties.getStorage().getImageRoot()).toAbsolutePath();
+        Files.createDirectories(root);
+        migrateFlatLayout();
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return Files.isRegularFile(resolve(name));
+    }
+
+    @Override
+    public Resource get(String name) {
+        Path path = resolve(name);
+        return Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+    }
+
+    @Override
+    public long lastModified(String name) throws IOException {
+        return Files.getLastModifiedTime(resolve(name)).toMillis();
+    }
+
+    @Override
+    public void put(String name, ImageWriter writer) throws IOException {
+        Path target = resolve(name);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".image-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        return Files.deleteIfExists(resolve(name));
+    }
+
+    @Override
+    public List<String> list(String prefix) throws IOException {
+        int dot = prefix.indexOf('.');
+        Path dir = dot < 0 ? root : resolve(prefix).getParent();
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = dot < 0 ? Files.walk(dir) : Files.list(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && !name.endsWith(".tmp"))
+                    .toList();
+        }
+    }
+
+    private Path resolve(String name) {
+        int dot = name.indexOf('.');
+        String shard = sha256(dot < 0 ? name : name.substring(0, dot));
+        return root.resolve(shard.substring(0, 2)).resolve(shard.substring(2, 4)).resolve(name);
+    }
+
+    // Images written before sharding sit in flat directories under imageRoot; move them into their shard once.
+    private void migrateFlatLayout() throws IOException {
+        List<Path> misplaced;
+        try (Stream<Path> files = Files.walk(root)) {
+            misplaced = files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                    .filter(path -> !path.equals(resolve(path.getFileName().toString())))
+                    .toList();
+        }
+        for (Path path : misplaced) {
+            Path target = resolve(path.getFileName().toString());
+            Files.createDirectories(target.getParent());
+            Files.move(path, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (!misplaced.isEmpty()) System.out.println("Moved " + misplaced.size() + " images into the sharded layout.");
+    }
+
+    private static String sha256(String value) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.wiily.pscosmeticos.PsAPI.infra.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    // Runs onCommit once the current transaction commits (or right away without one), onRollback otherwise.
+    public static void run(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) onCommit.run();
+                else onRollback.run();
+            }
+        });
+    }
+
+    public static void run(Runnable onCommit) {
+        run(onCommit, () -> {});
+    }
+}
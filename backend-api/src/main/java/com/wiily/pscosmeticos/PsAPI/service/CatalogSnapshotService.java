@@ -0,0 +1,147 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiily.pscosmeticos.PsAPI.domain.category.dto.returns.ReturnCatalogSnapshot;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductCardData;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Renders the active catalog to content-addressed JSON files, plain and gzipped, regenerated after writes settle.
+@Service
+public class CatalogSnapshotService {
+    @Autowired
+    CategoryTreeService categoryTreeService;
+    @Autowired
+    ProductFetchService fetch;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    AppProperties properties;
+
+    public record Snapshot(String version, Path json, Path gzip) {
+    }
+
+    private static final int CHUNK = 500;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("catalog-snapshot").factory());
+    private ScheduledFuture<?> pending;
+    private volatile Snapshot current;
+    // The snapshot before current: requests that resolved it just before a swap may still be streaming its files.
+    private Snapshot retired;
+
+    public Snapshot getCurrent() {
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.execute(this::generate);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // Debounced: each write pushes the regeneration back, so a burst of edits renders the catalog once.
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (pending != null) pending.cancel(false);
+        pending = scheduler.schedule(this::generate, properties.getCatalog().getSnapshotDebounce().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void generate() {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(render());
+            String version = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body)).substring(0, 16);
+            if (current != null && current.version().equals(version)) return;
+            Path root = Files.createDirectories(Path.of(properties.getCatalog().getSnapshotRoot()));
+            Path json = root.resolve("catalog-" + version + ".json");
+            Path gzip = root.resolve("catalog-" + version + ".json.gz");
+            write(json, out -> out.write(body));
+            write(gzip, out -> {
+                try (var gz = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+                    gz.write(body);
+                }
+            });
+            var previous = current;
+            current = new Snapshot(version, json, gzip);
+            // Files are kept for one more generation and deleted on the next swap.
+            if (retired != null && !retired.version().equals(version)) {
+                Files.deleteIfExists(retired.json());
+                Files.deleteIfExists(retired.gzip());
+            }
+            retired = previous;
+            System.out.println("Catalog snapshot " + version + " written, " + body.length + " bytes.");
+            // Earlier runs only ever deleted what they retired themselves, so their last generations are swept once.
+            if (previous == null) prune(root, Set.of(version));
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            System.out.println("Catalog snapshot failed: " + e.getMessage());
+        }
+    }
+
+    private ReturnCatalogSnapshot render() {
+        List<Long> ids = productRepository.findActiveIds();
+        List<ReturnProductCardData> cards = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += CHUNK) {
+            var chunk = ids.subList(i, Math.min(ids.size(), i + CHUNK));
+            var byId = fetch.fetchCards(chunk);
+            chunk.forEach(id -> cards.add(byId.get(id)));
+        }
+        return new ReturnCatalogSnapshot(categoryTreeService.buildTree(), cards);
+    }
+
+    // Removes snapshot files whose version is not kept, along with temp files left by an interrupted write. Only called
+    // from the snapshot thread, so no write is in progress.
+    static void prune(Path root, Set<String> keep) throws IOException {
+        try (var files = Files.newDirectoryStream(root, "{catalog-*.json,catalog-*.json.gz,snapshot-*.tmp}")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("catalog-") && keep.contains(name.substring("catalog-".length(), name.indexOf('.')))) continue;
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // Written beside the target and moved into place, so a reader never sees a half-written file.
+    private void write(Path target, Writer writer) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), "snapshot-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            writer.writeTo(out);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
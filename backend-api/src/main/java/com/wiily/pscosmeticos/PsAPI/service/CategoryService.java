@@ -5,16 +5,16 @@ import com.wiily.pscosmeticos.PsAPI.domain.category.CategoryRepository;
 import com.wiily.pscosmeticos.PsAPI.domain.category.dto.datas.EditCategoryData;
 import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
 import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
 import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.function.BiConsumer;
 
 @Service
@@ -26,10 +26,18 @@ public class CategoryService {
     @Autowired
     ImageService imageService;
     @Autowired
+    ImageIngestionService imageIngestionService;
+    @Autowired
     ProductRepository productRepository;
+    @Autowired
+    ApplicationEventPublisher events;
+    @Autowired
+    ProductDocumentService documents;
 
     public Category editCategory(@Valid EditCategoryData cd, MultipartFile image) {
         var c = repository.getReferenceById(cd.id());
+        // Products embed the category name, so a rename has to rewrite and drop every cached product of the category.
+        boolean renamed = cd.nome() != null && !cd.nome().equals(c.getNome());
         edit(cd.nome(), c, Category::setNome);
         edit(cd.descricao(), c, Category::setDescricao);
         edit(cd.ativo(), c, Category::setAtivo);
@@ -37,16 +45,19 @@ public class CategoryService {
             editImage(c, image);
         }
         repository.save(c);
+        if (renamed) {
+            var productIds = productRepository.findIdsByCategoryId(c.getId());
+            documents.refreshInChunks(productIds);
+            events.publishEvent(CatalogChangedEvent.products(productIds));
+        } else {
+            events.publishEvent(CatalogChangedEvent.catalog());
+        }
         return c;
     }
     private void editImage(Category category, MultipartFile image) {
-        try {
-            String path = properties.getStorage().getImageCategoryRoot() + imageService.getImagePath(category);
-            Files.delete(Path.of(path));
-            category.setImageUrl(imageService.imageProcessor(image, category));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        String oldImage = category.getImageUrl();
+        category.setImageUrl(imageIngestionService.submit(image, category));
+        imageService.releaseImage(oldImage);
     }
 
     private <T, V> void edit(V value, T obj, BiConsumer<T, V> setter) {
@@ -57,10 +68,10 @@ public class CategoryService {
 
     public Object deleteCategory(Long id) throws IOException {
         var category = repository.getReferenceById(id);
-        var products = productRepository.findByCategory(category);
-        if (!products.isEmpty()) return ResponseEntity.badRequest().body(new ApiResponse(false, "C.ITDx0001", "The category has products inside!"));
-        Files.delete(Path.of(properties.getStorage().getImageCategoryRoot() + imageService.getImagePath(category)));
+        if (productRepository.existsByCategory(category)) return ResponseEntity.badRequest().body(new ApiResponse(false, "C.ITDx0001", "The category has products inside!"));
         repository.delete(category);
+        imageService.releaseImage(category.getImageUrl());
+        events.publishEvent(CatalogChangedEvent.catalog());
         return null;
     }
 }
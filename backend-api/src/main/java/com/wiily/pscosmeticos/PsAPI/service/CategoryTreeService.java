@@ -0,0 +1,63 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
+import com.wiily.pscosmeticos.PsAPI.domain.category.CategoryRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.category.dto.returns.ReturnCategoryTree;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Holds the serialized category tree; it is rebuilt on the first request after a catalog write.
+@Service
+public class CategoryTreeService {
+    @Autowired
+    CategoryRepository repository;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(long version, byte[] body) {
+    }
+
+    public byte[] getTree() throws JsonProcessingException {
+        var current = snapshot;
+        long loadedAt = version.get();
+        if (current != null && current.version() == loadedAt) return current.body();
+        byte[] body = objectMapper.writeValueAsBytes(new ApiResponse(true, buildTree()));
+        // A write that committed while building bumps the version, so this snapshot is only used if it is still current.
+        snapshot = new Snapshot(loadedAt, body);
+        return body;
+    }
+
+    // Subcategories, products and categories all feed the tree, so any catalog write drops it.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    // One row per (category, subcategory), carrying the maintained product counts of both.
+    public List<ReturnCategoryTree> buildTree() {
+        Map<Long, ReturnCategoryTree> categories = new LinkedHashMap<>();
+        for (Object[] row : repository.findActiveTreeRows()) {
+            var category = categories.computeIfAbsent((Long) row[0], id -> new ReturnCategoryTree(
+                    id, (String) row[1], (String) row[2], (String) row[3], ((Number) row[4]).longValue(), new ArrayList<>()));
+            if (row[5] != null) {
+                category.subcategorias().add(new ReturnCategoryTree.SubCategoryNode((Long) row[5], (String) row[6], ((Number) row[7]).longValue()));
+            }
+        }
+        return categories.values().stream()
+                .map(c -> new ReturnCategoryTree(c.id(), c.nome(), c.slug(), c.imageUrl(), c.totalProdutos(), List.copyOf(c.subcategorias())))
+                .toList();
+    }
+}
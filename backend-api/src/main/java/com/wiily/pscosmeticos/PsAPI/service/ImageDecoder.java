@@ -0,0 +1,128 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ImageTooLarge;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+// Decodes images within a pixel budget: sizes come from the header, large sources are subsampled while reading,
+// and concurrent decodes wait once the decoded pixels in flight would exceed the budget.
+@Service
+public class ImageDecoder {
+    @Autowired
+    AppProperties properties;
+
+    private Semaphore budget;
+    private int budgetSize;
+
+    @FunctionalInterface
+    public interface ImageHandler {
+        void handle(BufferedImage image) throws IOException;
+    }
+
+    @PostConstruct
+    public void start() {
+        // WebP and AVIF readers/writers are registered once here instead of on every request.
+        ImageIO.scanForPlugins();
+        budgetSize = properties.getStorage().getDecodePixelBudget();
+        budget = new Semaphore(budgetSize, true);
+    }
+
+    // Reads only the header, so oversized uploads are rejected before any pixel is decoded.
+    public void check(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(in);
+            try {
+                checkSize(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public void decode(Path file, ImageHandler handler) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            decode(in, handler);
+        }
+    }
+
+    public void decode(InputStream stream, ImageHandler handler) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(stream)) {
+            decode(in, handler);
+        }
+    }
+
+    // The permits are held until the handler returns, since the decoded image stays alive while it is encoded.
+    private void decode(ImageInputStream in, ImageHandler handler) throws IOException {
+        ImageReader reader = reader(in);
+        int permits;
+        BufferedImage image;
+        try {
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            checkSize(width, height);
+            int factor = subsampling(width, height);
+            var param = reader.getDefaultReadParam();
+            if (factor > 1) param.setSourceSubsampling(factor, factor, 0, 0);
+            long pixels = (long) Math.ceilDiv(width, factor) * Math.ceilDiv(height, factor);
+            // A single image larger than the whole budget still runs, just alone.
+            permits = (int) Math.min(pixels, budgetSize);
+            acquire(permits);
+            try {
+                image = reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                budget.release(permits);
+                throw e;
+            }
+        } finally {
+            reader.dispose();
+        }
+        try {
+            handler.handle(image);
+        } finally {
+            budget.release(permits);
+        }
+    }
+
+    private ImageReader reader(ImageInputStream in) throws IOException {
+        if (in == null) throw new IOException("Image could not be opened");
+        var readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) throw new IOException("Unsupported image format");
+        ImageReader reader = readers.next();
+        reader.setInput(in, true, true);
+        return reader;
+    }
+
+    private void checkSize(int width, int height) {
+        long maxPixels = properties.getStorage().getMaxImagePixels();
+        if ((long) width * height > maxPixels) {
+            throw new ImageTooLarge("The image is " + width + "x" + height + " pixels, the limit is " + maxPixels + " pixels.");
+        }
+    }
+
+    // Smallest whole factor that brings the longest side within the decode limit.
+    private int subsampling(int width, int height) {
+        int maxDimension = properties.getStorage().getDecodeMaxDimension();
+        return Math.max(1, Math.ceilDiv(Math.max(width, height), maxDimension));
+    }
+
+    private void acquire(int permits) throws InterruptedIOException {
+        try {
+            budget.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the decode budget");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.category.Category;
+import com.wiily.pscosmeticos.PsAPI.domain.category.CategoryRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageStatus;
+import com.wiily.pscosmeticos.PsAPI.domain.image.StagedImage;
+import com.wiily.pscosmeticos.PsAPI.domain.product.Product;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ImageQueueFull;
+import com.wiily.pscosmeticos.PsAPI.infra.transaction.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.*;
+
+// Encodes uploads on a dedicated pool, so write requests only copy the upload and persist the entity as PENDING.
+@Service
+public class ImageIngestionService {
+    @Autowired
+    ImageService imageService;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    AppProperties properties;
+    @Autowired
+    ApplicationEventPublisher events;
+    @Autowired
+    ProductDocumentService documents;
+
+    private ExecutorService executor;
+    private Semaphore slots;
+
+    @PostConstruct
+    public void start() {
+        var storage = properties.getStorage();
+        executor = Executors.newFixedThreadPool(storage.getIngestionWorkers(), Thread.ofPlatform().name("image-ingestion-", 0).factory());
+        // One slot per image being encoded or waiting; once they are all taken new uploads get a 429.
+        slots = new Semaphore(storage.getIngestionWorkers() + storage.getIngestionQueueCapacity());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    // Returns the URL the image will be served from; encoding starts after the caller's transaction commits.
+    public String submit(MultipartFile image, Object target) {
+        if (!slots.tryAcquire()) throw new ImageQueueFull("Too many images are being processed, try again in a moment.");
+        StagedImage staged;
+        try {
+            staged = imageService.stage(image);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        boolean stored;
+        try {
+            // The lock is held until the caller commits, so releasing the file elsewhere either finishes first
+            // or sees this reference.
+            imageService.lockImage(staged.imageName());
+            stored = imageService.isStored(staged.imageName());
+        } catch (RuntimeException e) {
+            // Also gives the slot back.
+            discard(staged);
+            throw e;
+        }
+        // Same content as an image already on disk: nothing to encode.
+        if (stored) {
+            discard(staged);
+            setStatus(target, ImageStatus.READY);
+            return staged.url();
+        }
+        setStatus(target, ImageStatus.PENDING);
+        AfterCommit.run(() -> executor.execute(() -> encode(staged)), () -> discard(staged));
+        return staged.url();
+    }
+
+    private void setStatus(Object target, ImageStatus status) {
+        switch (target) {
+            case Product p -> p.setImageStatus(status);
+            case Category c -> c.setImageStatus(status);
+            default -> throw new IllegalStateException("Unexpected value: " + target);
+        }
+    }
+
+    private void encode(StagedImage staged) {
+        var status = ImageStatus.READY;
+        try {
+            // A concurrent upload of the same content may have finished first. Only the check is locked: every
+            // file is written to a temp file and moved into place, so writing the same content twice is harmless,
+            // and this upload's committed reference already keeps a release from deleting it.
+            if (!imageService.isStoredLocked(staged.imageName())) imageService.saveImage(staged);
+        } catch (Exception e) {
+            status = ImageStatus.FAILED;
+            System.out.println("Image ingestion failed for " + staged.imageName() + ": " + e.getMessage());
+        } finally {
+            discard(staged);
+        }
+        productRepository.updateImageStatus(staged.url(), status);
+        categoryRepository.updateImageStatus(staged.url(), status);
+        // Product documents and cached bodies carry the image status.
+        var productIds = productRepository.findIdsByImage(staged.url());
+        documents.refresh(productIds);
+        events.publishEvent(CatalogChangedEvent.products(productIds));
+    }
+
+    private void discard(StagedImage staged) {
+        try {
+            Files.deleteIfExists(staged.upload());
+        } catch (IOException e) {
+            System.out.println("Could not delete staged upload " + staged.upload() + ": " + e.getMessage());
+        }
+        slots.release();
+    }
+}
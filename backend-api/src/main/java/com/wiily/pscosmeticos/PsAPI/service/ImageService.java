@@ -1,76 +1,294 @@
 package com.wiily.pscosmeticos.PsAPI.service;
 
-import com.wiily.pscosmeticos.PsAPI.domain.category.Category;
+import com.wiily.pscosmeticos.PsAPI.domain.category.CategoryRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageCacheKey;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageFormat;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageRendition;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageVariant;
+import com.wiily.pscosmeticos.PsAPI.domain.image.StagedImage;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.LruByteCache;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ImageIsNull;
-import com.wiily.pscosmeticos.PsAPI.domain.product.Product;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
 import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import com.wiily.pscosmeticos.PsAPI.infra.storage.ImageStore;
+import com.wiily.pscosmeticos.PsAPI.infra.transaction.AfterCommit;
+import jakarta.annotation.PostConstruct;
 import net.coobird.thumbnailator.Thumbnails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.io.File;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ImageService {
     @Autowired
     AppProperties properties;
+    @Autowired
+    ImageStore store;
+    @Autowired
+    ImageDecoder decoder;
+    @Autowired
+    LruByteCache<ImageCacheKey> cache;
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger renditions = new AtomicInteger();
+    private final ConcurrentHashMap<String, CompletableFuture<ImageRendition>> inFlight = new ConcurrentHashMap<>();
+    private TransactionTemplate newTransaction;
+
+    @FunctionalInterface
+    public interface ImageWork {
+        void run() throws IOException;
+    }
+
+    @PostConstruct
+    public void countRenditions() throws IOException {
+        renditions.set((int) store.list("").stream().filter(ImageRendition::isOnDemandFile).count());
+    }
+
+    @PostConstruct
+    public void createTransactionTemplate() {
+        // A new transaction even inside afterCompletion, where the committed one is still bound to the thread.
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
-    // Saves and return the image URL.
-    public String imageProcessor(MultipartFile image, Object object) {
+    // Locks one content-addressed file until the current transaction ends. Deciding to reuse a stored file and
+    // deciding to delete it both take this lock, so a delete can't land between a reuse check and its commit.
+    public void lockImage(String imageName) {
+        // Outside a transaction the lock would be released as soon as it is taken.
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Locking the image " + imageName + " needs a transaction");
+        }
+        jdbc.query("select pg_advisory_xact_lock(hashtext(?))", rs -> {}, imageName);
+    }
+
+    // Exists check for threads outside a transaction; waits out a release that is still deleting the image's files.
+    public boolean isStoredLocked(String imageName) {
+        return Boolean.TRUE.equals(newTransaction.execute(status -> {
+            lockImage(imageName);
+            return store.exists(imageName);
+        }));
+    }
+
+    // Runs work in a transaction of its own that holds the image's lock, for threads outside the caller's transaction.
+    public void withImageLock(String imageName, ImageWork work) throws IOException {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                lockImage(imageName);
+                try {
+                    work.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Copies the upload out of the request and names it after its SHA-256, so identical uploads share one file.
+    public StagedImage stage(MultipartFile image) {
         if (image.isEmpty()) throw new ImageIsNull("The image sent to the API doesn't exist");
-        var objectInfo = objectType(object);
-        String imageName = objectInfo.getFirst() + "-" + objectInfo.get(1) + UUID.randomUUID() + ".webp";
         try {
-            saveImage(image, objectInfo.getLast(), imageName);
-        } catch (IOException e) {
+            var digest = MessageDigest.getInstance("SHA-256");
+            Path upload = Files.createTempFile("image-upload-", ".tmp");
+            try (InputStream in = new DigestInputStream(image.getInputStream(), digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+                decoder.check(upload);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(upload);
+                throw e;
+            }
+            String imageName = HexFormat.of().formatHex(digest.digest()) + ".webp";
+            return new StagedImage(upload, imageName, imageUrl(imageName));
+        } catch (IOException | NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    public String imageUrl(String imageName) {
         return properties.getApi().getDomainIp() + "/api/v1/image/" + imageName;
     }
 
-    private void saveImage(MultipartFile image, String fileLocation, String imageName) throws IOException {
-        File imageFolder = new File(fileLocation);
-        if (!imageFolder.exists()) imageFolder.mkdirs();
-        File file = new File(fileLocation + imageName);
-        ImageIO.scanForPlugins();
-        Thumbnails.of(image.getInputStream())
-                .scale(1.0)
-                .outputFormat("webp")
-                .toFile(file);
+    public boolean isStored(String imageName) {
+        return store.exists(imageName);
+    }
+
+    public void saveImage(StagedImage staged) throws IOException {
+        // Decode once and write every variant now, so GETs never have to re-encode.
+        // DISPLAY is the original and goes last, so isStored only turns true once every variant exists.
+        decoder.decode(staged.upload(), source -> {
+            for (ImageVariant variant : ImageVariant.values()) {
+                write(source, variant.getScale(), ImageFormat.WEBP, variant.fileName(staged.imageName()));
+            }
+        });
+    }
 
+    private void write(BufferedImage source, double scale, ImageFormat format, String name) throws IOException {
+        store.put(name, out -> {
+            var builder = Thumbnails.of(source)
+                    .scale(scale)
+                    .outputFormat(format.getWriterName());
+            if (!format.hasAlpha()) builder.imageType(BufferedImage.TYPE_INT_RGB);
+            builder.toOutputStream(out);
+        });
     }
 
+    public int snapWidth(int width) {
+        var widths = properties.getStorage().getImageWidths();
+        return widths.stream()
+                .filter(w -> w >= width)
+                .min(Integer::compare)
+                .orElse(widths.stream().max(Integer::compare).orElse(width));
+    }
 
-    private List<String> objectType(Object object) {
-        List<String> list = new ArrayList<>();
-        switch (object) {
-            case Category c -> {
-                list.add(c.getClass().getSimpleName());
-                list.add(c.getSlug());
-                list.add(properties.getStorage().getImageCategoryRoot());
-            }
-            case Product p -> {
-                list.add(p.getClass().getSimpleName());
-                list.add(p.getSlug());
-                list.add(properties.getStorage().getImageProductRoot());
+    // The rendition resolve is expected to serve, decided without generating anything, so a conditional GET can be
+    // answered before paying for an encode.
+    public ImageRendition peek(String name, ImageRendition rendition) {
+        String fileName = rendition.fileName(name);
+        if (rendition.isPrecomputed() || store.exists(fileName) || inFlight.containsKey(fileName)) return rendition;
+        if (renditions.get() < properties.getStorage().getMaxRenditions()) return rendition;
+        return ImageRendition.of(rendition.variant());
+    }
+
+    // Generates a missing on-demand rendition, or falls back to the precomputed WebP variant once the cap is reached.
+    // Concurrent requests for the same file wait on the one generation instead of each encoding and counting it.
+    public ImageRendition resolve(String name, ImageRendition rendition) throws IOException {
+        if (rendition.isPrecomputed()) return rendition;
+        String fileName = rendition.fileName(name);
+        if (store.exists(fileName)) return rendition;
+        var generation = new CompletableFuture<ImageRendition>();
+        var running = inFlight.putIfAbsent(fileName, generation);
+        if (running != null) return await(running);
+        try {
+            generation.complete(generate(name, rendition, fileName));
+        } catch (IOException | RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(fileName, generation);
+        }
+        return generation.join();
+    }
+
+    private ImageRendition generate(String name, ImageRendition rendition, String fileName) throws IOException {
+        // Checked again now that this thread owns the name: an earlier generation may have just finished.
+        if (store.exists(fileName)) return rendition;
+        int max = properties.getStorage().getMaxRenditions();
+        if (renditions.getAndUpdate(n -> n < max ? n + 1 : n) >= max) return ImageRendition.of(rendition.variant());
+        boolean written = false;
+        try {
+            written = write(name, rendition, fileName);
+        } finally {
+            if (!written) renditions.decrementAndGet();
+        }
+        return rendition;
+    }
+
+    private static ImageRendition await(CompletableFuture<ImageRendition> generation) throws IOException {
+        try {
+            return generation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw e;
+        }
+    }
+
+    // Returns the stored rendition. Only precomputed variants missing from older uploads are written here;
+    // on-demand renditions are generated by resolve.
+    public Resource getRendition(String originalName, ImageRendition rendition) throws IOException {
+        String name = rendition.fileName(originalName);
+        var stored = store.get(name);
+        if (stored != null || !rendition.isPrecomputed()) return stored;
+        return write(originalName, rendition, name) ? store.get(name) : null;
+    }
+
+    // Decodes the original and writes the rendition; false if the original is gone.
+    private boolean write(String originalName, ImageRendition rendition, String name) throws IOException {
+        Resource original = store.get(originalName);
+        if (original == null) return false;
+        try (InputStream in = original.getInputStream()) {
+            decoder.decode(in, source -> {
+                double scale = rendition.width() != null
+                        ? Math.min(1.0, (double) rendition.width() / source.getWidth())
+                        : rendition.variant().getScale();
+                write(source, scale, rendition.format(), name);
+            });
+        }
+        return true;
+    }
+
+    // Backfill for images uploaded before variants were precomputed.
+    public int generateMissingVariants() throws IOException {
+        List<String> originals = store.list("").stream()
+                .filter(name -> name.endsWith(".webp"))
+                .filter(name -> !ImageRendition.isDerivedFile(name))
+                .toList();
+        int generated = 0;
+        for (String original : originals) {
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (variant == ImageVariant.DISPLAY || store.exists(variant.fileName(original))) continue;
+                getRendition(original, ImageRendition.of(variant));
+                generated++;
             }
-            default -> throw new IllegalStateException("Unexpected value: " + object);
         }
-        return list;
+        return generated;
     }
 
-    public String getImagePath(Category category) {
-        String[] url = category.getImageUrl().split("/");
-        return url[4];
+    // Products and categories share content-addressed files, so a file only goes once nothing points at it.
+    public void releaseImage(String url) {
+        String imageName = url.substring(url.lastIndexOf('/') + 1);
+        AfterCommit.run(() -> {
+            try {
+                // Counted under the lock, so an upload that just reused the file has either committed or waits for us.
+                withImageLock(imageName, () -> {
+                    if (productRepository.countByImage(url) + categoryRepository.countByImageUrl(url) > 0) return;
+                    deleteImage(imageName);
+                });
+            } catch (IOException e) {
+                System.out.println("Could not delete image " + url + ": " + e.getMessage());
+            }
+        });
     }
-    public String getImagePath(Product product) {
-        String[] url = product.getImage().split("/");
-        return url[4];
+
+    // Deletes the original image with its precomputed variants and every rendition generated from it.
+    private void deleteImage(String imageName) throws IOException {
+        String base = imageName.substring(0, imageName.lastIndexOf('.')) + ".";
+        for (String name : store.list(base)) {
+            if (!ImageRendition.isDerivedFile(name)) continue;
+            if (store.delete(name) && ImageRendition.isOnDemandFile(name)) renditions.decrementAndGet();
+        }
+        store.delete(imageName);
+        cache.invalidateIf(key -> key.name().equals(imageName));
     }
 }
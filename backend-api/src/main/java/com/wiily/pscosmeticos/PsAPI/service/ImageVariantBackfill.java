@@ -0,0 +1,31 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+public class ImageVariantBackfill {
+    @Autowired
+    ImageService imageService;
+    @Autowired
+    AppProperties properties;
+
+    // Runs once after startup, off the main thread, for images saved before variants existed.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!properties.getStorage().isBackfillVariants()) return;
+        Thread.ofVirtual().name("image-variant-backfill").start(() -> {
+            try {
+                int generated = imageService.generateMissingVariants();
+                System.out.println("Image variant backfill finished, " + generated + " variants generated.");
+            } catch (IOException e) {
+                System.out.println("Image variant backfill failed: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiily.pscosmeticos.PsAPI.domain.ApiResponse;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductPageKey;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.ByteBufferResource;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.LruByteCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read-through caches of serialized product bodies and listing pages, so hits skip both the queries and Jackson.
+@Service
+public class ProductCacheService {
+    @Autowired
+    LruByteCache<Long> productCache;
+    @Autowired
+    LruByteCache<ProductPageKey> pageCache;
+    @Autowired
+    ProductService productService;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // Catalog version, bumped on every write; a load that started before it is not stored, so it can't resurrect stale data.
+    private final AtomicLong version = new AtomicLong();
+
+    public Resource getProduct(Long id) throws JsonProcessingException {
+        var cached = productCache.get(id);
+        if (cached != null) return new ByteBufferResource(cached, id + ".json");
+        long loadedAt = version.get();
+        byte[] body = objectMapper.writeValueAsBytes(new ApiResponse(true, productService.getProduct(id)));
+        if (version.get() == loadedAt) productCache.put(id, body);
+        return new ByteBufferResource(ByteBuffer.wrap(body).asReadOnlyBuffer(), id + ".json");
+    }
+
+    public Resource getProductPage(String category, Pageable pageable) throws JsonProcessingException {
+        var key = new ProductPageKey(
+                version.get(),
+                category == null ? null : category.toLowerCase(),
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                pageable.getSort().toString());
+        var cached = pageCache.get(key);
+        if (cached != null) return new ByteBufferResource(cached, "page.json");
+        byte[] body = objectMapper.writeValueAsBytes(new ApiResponse(true, productService.getProducts(category, pageable)));
+        // Stored under the version read before the query, so a page rendered across a write is never served.
+        pageCache.put(key, body);
+        return new ByteBufferResource(ByteBuffer.wrap(body).asReadOnlyBuffer(), "page.json");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        version.incrementAndGet();
+        if (event.wholeCatalog()) productCache.clear();
+        else event.productIds().forEach(productCache::invalidate);
+        pageCache.clear();
+    }
+}
@@ -0,0 +1,61 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.category.CategoryRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductPlacement;
+import com.wiily.pscosmeticos.PsAPI.domain.subcategory.SubCategoryRepository;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Keeps the total/active product counts of categories and subcategories in step with product writes.
+// Writes adjust the counters by delta in the caller's transaction; the reconciliation job repairs any drift.
+@Service
+public class ProductCountService {
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    SubCategoryRepository subCategoryRepository;
+    @Autowired
+    ApplicationEventPublisher events;
+
+    public void added(ProductPlacement placement) {
+        adjust(placement, 1);
+    }
+
+    // Bulk writes adjust each category and subcategory once, however many products landed in it.
+    public void added(Collection<ProductPlacement> placements) {
+        Map<ProductPlacement, Integer> grouped = new HashMap<>();
+        placements.forEach(p -> grouped.merge(p, 1, Integer::sum));
+        grouped.forEach((placement, n) -> adjust(placement, n));
+    }
+
+    public void removed(ProductPlacement placement) {
+        adjust(placement, -1);
+    }
+
+    public void moved(ProductPlacement before, ProductPlacement after) {
+        if (before.equals(after)) return;
+        adjust(before, -1);
+        adjust(after, 1);
+    }
+
+    private void adjust(ProductPlacement placement, int delta) {
+        int active = placement.active() ? delta : 0;
+        if (placement.categoryId() != null) categoryRepository.adjustProductCounts(placement.categoryId(), delta, active);
+        if (placement.subCategoryId() != null) subCategoryRepository.adjustProductCounts(placement.subCategoryId(), delta, active);
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.countReconcileInterval}", fixedDelayString = "${app.catalog.countReconcileInterval}")
+    public void reconcile() {
+        int repaired = categoryRepository.reconcileProductCounts() + subCategoryRepository.reconcileProductCounts();
+        if (repaired == 0) return;
+        System.out.println("Product count reconciliation repaired " + repaired + " categories and subcategories.");
+        events.publishEvent(CatalogChangedEvent.catalog());
+    }
+}
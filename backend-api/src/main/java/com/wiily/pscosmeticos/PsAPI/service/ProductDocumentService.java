@@ -0,0 +1,94 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+// Maintains product_documents, the JSONB read model: the full GET /produtos/{id} document and the listing card
+// of every product. Writes refresh it inside their own transaction; reads are one primary-key lookup.
+@Service
+public class ProductDocumentService {
+    @Autowired
+    ProductRepository repository;
+    @Autowired
+    ProductFetchService fetch;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    ApplicationEventPublisher events;
+
+    private static final int CHUNK = 500;
+
+    // Joins the caller's transaction; pending entity changes are flushed first so the documents see them.
+    @Transactional
+    public void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        repository.flush();
+        List<Long> list = List.copyOf(ids);
+        var products = fetch.fetchProducts(list);
+        var cards = fetch.fetchCards(list);
+        try {
+            for (Long id : list) {
+                var product = products.get(id);
+                if (product == null) continue;
+                repository.upsertDocument(id, objectMapper.writeValueAsString(product), objectMapper.writeValueAsString(cards.get(id)));
+            }
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public RawValue getDocument(Long id) {
+        return repository.findDocument(id).map(RawValue::new).orElse(null);
+    }
+
+    public Map<Long, RawValue> getCards(List<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+        Map<Long, RawValue> cards = new HashMap<>();
+        for (Object[] row : repository.findCardDocuments(ids)) {
+            cards.put(((Number) row[0]).longValue(), new RawValue((String) row[1]));
+        }
+        return cards;
+    }
+
+    // Refreshes in chunks so no query carries an unbounded IN list. Called alone, each chunk commits on its own;
+    // inside a caller's transaction the chunks join it, so the caller's write and its documents stay atomic.
+    public void refreshInChunks(List<Long> ids) {
+        for (int i = 0; i < ids.size(); i += CHUNK) {
+            var chunk = ids.subList(i, Math.min(ids.size(), i + CHUNK));
+            transactionTemplate.executeWithoutResult(status -> refresh(chunk));
+        }
+    }
+
+    // Rewrites every document, then has every cache and in-memory index reload, since the tables may have been
+    // changed by hand.
+    public int rebuild() {
+        List<Long> ids = repository.findAllIds();
+        refreshInChunks(ids);
+        events.publishEvent(CatalogChangedEvent.allProducts());
+        return ids.size();
+    }
+
+    // Products written before the read model existed get their documents once, off the main thread.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (repository.countDocuments() >= repository.count()) return;
+        Thread.ofVirtual().name("product-document-backfill").start(() -> {
+            int rebuilt = rebuild();
+            System.out.println("Product document backfill finished, " + rebuilt + " products.");
+        });
+    }
+}
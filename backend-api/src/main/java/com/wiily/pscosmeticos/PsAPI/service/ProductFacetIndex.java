@@ -0,0 +1,177 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductFacet;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductFacets;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// One bitmap of product ids per facet value, so filtering and counting are bitwise ANDs instead of SQL COUNTs.
+@Service
+public class ProductFacetIndex {
+    @Autowired
+    ProductRepository repository;
+    @Autowired
+    AppProperties properties;
+
+    private final Map<ProductFacet, Map<String, BitSet>> bitmaps = new EnumMap<>(ProductFacet.class);
+    // Facet values of each indexed product, needed to clear its bits when it changes.
+    private final Map<Long, Map<ProductFacet, Set<String>>> products = new HashMap<>();
+    private final BitSet all = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        index(repository.findFacetRows(), repository.findAllTagNames(), repository.findAllIngredientNames(), List.of(), true);
+        System.out.println("Product facet index built, " + all.cardinality() + " products.");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.wholeCatalog()) {
+            build();
+            return;
+        }
+        if (event.productIds().isEmpty()) return;
+        var ids = event.productIds();
+        index(repository.findFacetRowsByIdIn(ids), repository.findTagNamesByIdIn(ids), repository.findIngredientNamesByIdIn(ids), ids, false);
+    }
+
+    // Within a facet the selected values are ORed, across facets ANDed. Each facet is counted
+    // with every filter but its own, so shoppers still see the alternatives to what they picked.
+    public ReturnProductFacets filter(Map<ProductFacet, List<String>> selected, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            Map<ProductFacet, BitSet> matches = new EnumMap<>(ProductFacet.class);
+            selected.forEach((facet, values) -> matches.put(facet, union(facet, values)));
+            BitSet result = intersect(matches, null);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (ProductFacet facet : ProductFacet.values()) {
+                BitSet base = intersect(matches, facet);
+                Map<String, Integer> values = new TreeMap<>();
+                bitmaps.getOrDefault(facet, Map.of()).forEach((value, bits) -> {
+                    var hit = (BitSet) bits.clone();
+                    hit.and(base);
+                    int count = hit.cardinality();
+                    if (count > 0) values.put(value, count);
+                });
+                counts.put(facet.getParam(), values);
+            }
+
+            List<Long> ids = result.stream()
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .mapToObj(id -> (long) id)
+                    .toList();
+            return new ReturnProductFacets(ids, result.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet union(ProductFacet facet, List<String> values) {
+        var bits = new BitSet();
+        var byValue = bitmaps.getOrDefault(facet, Map.of());
+        for (String value : values) {
+            var match = byValue.get(value.toLowerCase(Locale.ROOT));
+            if (match != null) bits.or(match);
+        }
+        return bits;
+    }
+
+    private BitSet intersect(Map<ProductFacet, BitSet> matches, ProductFacet skip) {
+        var bits = (BitSet) all.clone();
+        matches.forEach((facet, match) -> {
+            if (facet != skip) bits.and(match);
+        });
+        return bits;
+    }
+
+    // Rows: (id, category, subcategory, price, active), (id, tag) and (id, ingredient). With replace, the rows are
+    // the whole catalog and take the place of everything indexed before, in one swap under the write lock.
+    private void index(List<Object[]> rows, List<Object[]> tags, List<Object[]> ingredients, Collection<Long> changed,
+                       boolean replace) {
+        Map<Long, Map<ProductFacet, Set<String>>> docs = new HashMap<>();
+        for (Object[] row : rows) {
+            Map<ProductFacet, Set<String>> doc = new EnumMap<>(ProductFacet.class);
+            add(doc, ProductFacet.CATEGORY, (String) row[1]);
+            add(doc, ProductFacet.SUBCATEGORY, (String) row[2]);
+            add(doc, ProductFacet.PRICE, priceBand((Double) row[3]));
+            add(doc, ProductFacet.ACTIVE, String.valueOf(Boolean.TRUE.equals(row[4])));
+            docs.put((Long) row[0], doc);
+        }
+        for (Object[] row : tags) {
+            var doc = docs.get((Long) row[0]);
+            if (doc != null) add(doc, ProductFacet.TAG, (String) row[1]);
+        }
+        for (Object[] row : ingredients) {
+            var doc = docs.get((Long) row[0]);
+            if (doc != null) add(doc, ProductFacet.INGREDIENT, (String) row[1]);
+        }
+        lock.writeLock().lock();
+        try {
+            if (replace) {
+                bitmaps.clear();
+                products.clear();
+                all.clear();
+            }
+            // Changed ids that came back without a row were deleted.
+            changed.forEach(this::remove);
+            docs.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Map<ProductFacet, Set<String>> doc, ProductFacet facet, String value) {
+        if (value == null || value.isBlank()) return;
+        doc.computeIfAbsent(facet, f -> new HashSet<>()).add(value.toLowerCase(Locale.ROOT));
+    }
+
+    private void put(Long id, Map<ProductFacet, Set<String>> doc) {
+        remove(id);
+        int bit = Math.toIntExact(id);
+        doc.forEach((facet, values) -> values.forEach(value -> bitmaps
+                .computeIfAbsent(facet, f -> new HashMap<>())
+                .computeIfAbsent(value, v -> new BitSet())
+                .set(bit)));
+        products.put(id, doc);
+        all.set(bit);
+    }
+
+    private void remove(Long id) {
+        var doc = products.remove(id);
+        if (doc == null) return;
+        int bit = Math.toIntExact(id);
+        doc.forEach((facet, values) -> {
+            var byValue = bitmaps.get(facet);
+            for (String value : values) {
+                var bits = byValue.get(value);
+                bits.clear(bit);
+                if (bits.isEmpty()) byValue.remove(value);
+            }
+        });
+        all.clear(bit);
+    }
+
+    // Bands come from app.catalog.priceBands, e.g. [25, 50] gives "0-25", "25-50" and "50+".
+    private String priceBand(double price) {
+        int lower = 0;
+        for (int upper : properties.getCatalog().getPriceBands()) {
+            if (price < upper) return lower + "-" + upper;
+            lower = upper;
+        }
+        return lower + "+";
+    }
+}
@@ -0,0 +1,45 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductCardData;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductGetter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Batched loaders shared by the read endpoints and the product documents; each costs a fixed number of queries.
+@Service
+public class ProductFetchService {
+    @Autowired
+    ProductRepository repository;
+
+    // Returns the mapped products keyed by id; the collection queries fill the same persistence context.
+    @Transactional(readOnly = true)
+    public Map<Long, ReturnProductGetter> fetchProducts(List<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+        var products = repository.findByIdIn(ids);
+        repository.fetchIngredients(ids);
+        repository.fetchTags(ids);
+        Map<Long, ReturnProductGetter> result = new HashMap<>();
+        products.forEach(p -> result.put(p.getId(), new ReturnProductGetter(p)));
+        return result;
+    }
+
+    public Map<Long, ReturnProductCardData> fetchCards(List<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+        Map<Long, List<String>> tags = new HashMap<>();
+        for (Object[] row : repository.findTagNamesByIdIn(ids)) {
+            tags.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+        Map<Long, ReturnProductCardData> result = new HashMap<>();
+        for (var card : repository.findCardsByIdIn(ids)) {
+            result.put(card.id(), card.withTags(tags.getOrDefault(card.id(), List.of())));
+        }
+        return result;
+    }
+}
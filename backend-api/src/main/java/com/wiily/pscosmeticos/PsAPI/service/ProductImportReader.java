@@ -0,0 +1,135 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductImportFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads an import one row at a time, so the body is never held in memory.
+// Both formats come out as the JSON of a CreateProductData plus "imagem"; in CSV, list cells
+// (tags, ingredientes) are separated by '|' and "cores" is written as "nome=valor|nome=valor".
+class ProductImportReader implements Closeable {
+    record Row(long line, JsonNode fields, String error) {
+    }
+
+    private static final List<String> LIST_COLUMNS = List.of("tags", "ingredientes");
+
+    private final Reader reader;
+    private final ProductImportFormat format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long line = 1;
+
+    ProductImportReader(InputStream in, ProductImportFormat format, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+        // Spreadsheet exports often start with a byte order mark, which would otherwise end up in the first column name.
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') reader.reset();
+    }
+
+    // Returns null once the input is exhausted; blank lines are skipped.
+    Row next() throws IOException {
+        while (true) {
+            long start = line;
+            List<String> record = readRecord();
+            if (record == null) return null;
+            if (record.size() == 1 && record.get(0).isBlank()) continue;
+            if (format == ProductImportFormat.NDJSON) return parseJson(start, record.get(0));
+            if (header == null) {
+                header = record.stream().map(String::trim).toList();
+                continue;
+            }
+            return toFields(start, record);
+        }
+    }
+
+    private Row parseJson(long start, String json) {
+        try {
+            return new Row(start, objectMapper.readTree(json), null);
+        } catch (JsonProcessingException e) {
+            return new Row(start, null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row toFields(long start, List<String> record) {
+        if (record.size() != header.size()) {
+            return new Row(start, null, "Expected " + header.size() + " columns, found " + record.size());
+        }
+        ObjectNode fields = objectMapper.createObjectNode();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i);
+            String value = record.get(i).trim();
+            if (value.isEmpty()) continue;
+            if (LIST_COLUMNS.contains(column)) {
+                var list = fields.putArray(column);
+                for (String item : value.split("\\|")) {
+                    if (!item.isBlank()) list.add(item.trim());
+                }
+            } else if (column.equals("cores")) {
+                var colors = fields.putObject(column);
+                for (String pair : value.split("\\|")) {
+                    int eq = pair.indexOf('=');
+                    if (eq < 0) return new Row(start, null, "Color '" + pair + "' is not written as nome=valor");
+                    colors.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+                }
+            } else {
+                fields.put(column, value);
+            }
+        }
+        return new Row(start, fields, null);
+    }
+
+    // NDJSON records are lines; CSV records follow RFC 4180, so quoted cells may hold commas, quotes and line breaks.
+    private List<String> readRecord() throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean csv = format == ProductImportFormat.CSV;
+        int c = reader.read();
+        if (c < 0) return null;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    cell.append((char) c);
+                }
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c == '\r') {
+                // Dropped; the '\n' that follows ends the record.
+            } else if (csv && c == '"' && cell.isEmpty()) {
+                quoted = true;
+            } else if (csv && c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append((char) c);
+            }
+            c = reader.read();
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
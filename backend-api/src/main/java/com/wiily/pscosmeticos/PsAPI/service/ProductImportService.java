@@ -0,0 +1,290 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiily.pscosmeticos.PsAPI.domain.image.ImageStatus;
+import com.wiily.pscosmeticos.PsAPI.domain.product.PRODUCT_TYPE;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductImportFormat;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductPlacement;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.datas.CreateProductData;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductImport;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductImport.RejectedRow;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Bulk product import. Rows are validated as they are read and written in chunks, one transaction per chunk:
+// tags and ingredients are resolved for the whole chunk at once, ids come from the products identity sequence
+// in one call, and every table is written with JDBC batch inserts instead of one entity save per product.
+@Service
+public class ProductImportService {
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    AppProperties properties;
+    @Autowired
+    ImageService imageService;
+    @Autowired
+    ProductCountService counts;
+    @Autowired
+    ProductDocumentService documents;
+    @Autowired
+    ApplicationEventPublisher events;
+
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+
+    // A validated row, ready to be inserted.
+    private record ImportedProduct(long line,
+                                   CreateProductData data,
+                                   PRODUCT_TYPE type,
+                                   Long categoryId,
+                                   Long subCategoryId,
+                                   String imageName,
+                                   String imageUrl,
+                                   List<String> tags,
+                                   List<String> ingredients,
+                                   Map<String, String> colors) {
+    }
+
+    // State of one import: lookups, the tag and ingredient ids committed so far, and the report.
+    private class ImportRun {
+        final Set<Long> categories = new HashSet<>();
+        final Map<Long, Long> subCategories = new HashMap<>();
+        final Map<String, Long> tagIds = new HashMap<>();
+        final Map<String, Long> ingredientIds = new HashMap<>();
+        final List<RejectedRow> rejections = new ArrayList<>();
+        final long started = System.nanoTime();
+        long imported;
+        long rejected;
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < properties.getCatalog().getImportMaxRejections()) {
+                rejections.add(new RejectedRow(line, reason));
+            }
+        }
+
+        double rowsPerSecond() {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            return seconds == 0 ? 0 : (imported + rejected) / seconds;
+        }
+    }
+
+    public ReturnProductImport importProducts(InputStream in, ProductImportFormat format) throws IOException {
+        var run = new ImportRun();
+        jdbc.query("select category_id from categories", rs -> {
+            run.categories.add(rs.getLong(1));
+        });
+        jdbc.query("select sub_category_id, sub_category_category_id from sub_categories", rs -> {
+            run.subCategories.put(rs.getLong(1), rs.getLong(2));
+        });
+        int chunkSize = properties.getCatalog().getImportChunkSize();
+        List<ImportedProduct> chunk = new ArrayList<>(chunkSize);
+        try (var reader = new ProductImportReader(in, format, objectMapper)) {
+            ProductImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                if (row.error() != null) {
+                    run.reject(row.line(), row.error());
+                    continue;
+                }
+                try {
+                    chunk.add(validate(run, row.line(), row.fields()));
+                } catch (IllegalArgumentException e) {
+                    run.reject(row.line(), e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    write(run, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) write(run, chunk);
+        long millis = (System.nanoTime() - run.started) / 1_000_000;
+        System.out.printf("Product import finished: %d imported, %d rejected in %d ms (%.0f rows/s).%n",
+                run.imported, run.rejected, millis, run.rowsPerSecond());
+        return new ReturnProductImport(run.imported, run.rejected, millis, run.rowsPerSecond(), run.rejections);
+    }
+
+    private ImportedProduct validate(ImportRun run, long line, JsonNode fields) {
+        CreateProductData data;
+        try {
+            data = objectMapper.treeToValue(fields, CreateProductData.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid field: " + e.getMessage().lines().findFirst().orElse(""));
+        }
+        require(data.nome(), "nome", 100);
+        require(data.descricao(), "descricao", 1000);
+        require(data.descricaoCompleta(), "descricaoCompleta", 3000);
+        require(data.modoUso(), "modoUso", 3000);
+        if (!fields.hasNonNull("preco")) throw new IllegalArgumentException("preco is required");
+        if (!fields.hasNonNull("categoria")) throw new IllegalArgumentException("categoria is required");
+        PRODUCT_TYPE type = Arrays.stream(PRODUCT_TYPE.values())
+                .filter(t -> data.tipo() != null && t.name().equalsIgnoreCase(data.tipo()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The product type '" + data.tipo() + "' do not exist"));
+        long categoryId = data.categoria();
+        if (!run.categories.contains(categoryId)) {
+            throw new IllegalArgumentException("The category id '" + categoryId + "' do not exist");
+        }
+        Long subCategoryId = data.sub_categoria() == null ? null : data.sub_categoria().longValue();
+        if (subCategoryId != null && !Long.valueOf(categoryId).equals(run.subCategories.get(subCategoryId))) {
+            throw new IllegalArgumentException("Sub-category don't belong to the category");
+        }
+        String imageName = fields.path("imagem").asText("");
+        imageName = imageName.substring(imageName.lastIndexOf('/') + 1);
+        if (imageName.isBlank()) throw new IllegalArgumentException("imagem is required");
+        var tags = names(data.tags(), "tag");
+        var ingredients = names(data.ingredientes(), "ingredient");
+        Map<String, String> colors = type == PRODUCT_TYPE.MULTI_COLOR && data.cores() != null ? data.cores() : Map.of();
+        return new ImportedProduct(line, data, type, categoryId, subCategoryId, imageName, imageService.imageUrl(imageName),
+                tags, ingredients, colors);
+    }
+
+    private void require(String value, String field, int maxLength) {
+        if (value == null || value.isBlank()) throw new IllegalArgumentException(field + " is required");
+        if (value.length() > maxLength) throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+    }
+
+    // Distinct names, compared ignoring case like TagService and IngredientService do.
+    private List<String> names(List<String> names, String kind) {
+        if (names == null) return List.of();
+        Map<String, String> distinct = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) continue;
+            String trimmed = name.trim();
+            if (trimmed.length() > 50) throw new IllegalArgumentException("The " + kind + " '" + trimmed + "' is longer than 50 characters");
+            distinct.putIfAbsent(trimmed.toLowerCase(), trimmed);
+        }
+        return List.copyOf(distinct.values());
+    }
+
+    // Writes one chunk in its own transaction. If the database still refuses it, the tags and ingredients it created
+    // are forgotten with the rollback and the chunk is split in halves and retried, down to the single rows at fault.
+    private void write(ImportRun run, List<ImportedProduct> chunk) {
+        Map<String, Long> newTags = new HashMap<>();
+        Map<String, Long> newIngredients = new HashMap<>();
+        List<ImportedProduct> inserted = new ArrayList<>();
+        List<ImportedProduct> missingImage = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                inserted.clear();
+                missingImage.clear();
+                // The image locks are held until the chunk commits, so a release can't delete a file between this check
+                // and the products that reference it. Taken in name order, so two imports can't deadlock.
+                Set<String> stored = new HashSet<>();
+                chunk.stream().map(ImportedProduct::imageName).distinct().sorted().forEach(name -> {
+                    imageService.lockImage(name);
+                    if (imageService.isStored(name)) stored.add(name);
+                });
+                chunk.forEach(p -> (stored.contains(p.imageName()) ? inserted : missingImage).add(p));
+                if (inserted.isEmpty()) return;
+                resolve(inserted.stream().flatMap(p -> p.tags().stream()), run.tagIds, newTags, "tags", "tag_id", "tag_name");
+                resolve(inserted.stream().flatMap(p -> p.ingredients().stream()), run.ingredientIds, newIngredients,
+                        "ingredients", "ingredient_id", "ingredient_name");
+                List<Long> ids = jdbc.queryForList(
+                        "select nextval(pg_get_serial_sequence('products', 'product_id')) from generate_series(1, ?)",
+                        Long.class, inserted.size());
+                insert(inserted, ids, key -> Optional.ofNullable(newTags.get(key)).orElseGet(() -> run.tagIds.get(key)),
+                        key -> Optional.ofNullable(newIngredients.get(key)).orElseGet(() -> run.ingredientIds.get(key)));
+                counts.added(inserted.stream()
+                        .map(p -> new ProductPlacement(p.categoryId(), p.subCategoryId(), p.data().ativo()))
+                        .toList());
+                documents.refresh(ids);
+                events.publishEvent(CatalogChangedEvent.products(ids));
+            });
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                run.reject(chunk.getFirst().line(), "Refused by the database: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            int half = chunk.size() / 2;
+            write(run, chunk.subList(0, half));
+            write(run, chunk.subList(half, chunk.size()));
+            return;
+        }
+        missingImage.forEach(p -> run.reject(p.line(), "The image '" + p.imageName() + "' is not stored"));
+        run.tagIds.putAll(newTags);
+        run.ingredientIds.putAll(newIngredients);
+        run.imported += inserted.size();
+    }
+
+    // Looks up the names the import hasn't seen yet in one query and creates the missing ones in another.
+    private void resolve(Stream<String> names, Map<String, Long> known, Map<String, Long> created,
+                         String table, String idColumn, String nameColumn) {
+        Map<String, String> unseen = new LinkedHashMap<>();
+        names.forEach(name -> {
+            String key = name.toLowerCase();
+            if (!known.containsKey(key)) unseen.putIfAbsent(key, name);
+        });
+        if (unseen.isEmpty()) return;
+        Map<String, Long> found = new HashMap<>();
+        jdbc.query(con -> {
+            var ps = con.prepareStatement("select min(" + idColumn + "), lower(" + nameColumn + ") from " + table
+                    + " where lower(" + nameColumn + ") = any(?) group by lower(" + nameColumn + ")");
+            ps.setArray(1, con.createArrayOf("varchar", unseen.keySet().toArray()));
+            return ps;
+        }, rs -> {
+            found.put(rs.getString(2), rs.getLong(1));
+        });
+        known.putAll(found);
+        var missing = unseen.entrySet().stream().filter(e -> !found.containsKey(e.getKey())).map(Map.Entry::getValue).toList();
+        if (missing.isEmpty()) return;
+        jdbc.query(con -> {
+            var ps = con.prepareStatement("insert into " + table + " (" + nameColumn + ") select unnest(?) returning "
+                    + idColumn + ", " + nameColumn);
+            ps.setArray(1, con.createArrayOf("varchar", missing.toArray()));
+            return ps;
+        }, rs -> {
+            created.put(rs.getString(2).toLowerCase(), rs.getLong(1));
+        });
+    }
+
+    private void insert(List<ImportedProduct> chunk, List<Long> ids,
+                        Function<String, Long> tagId,
+                        Function<String, Long> ingredientId) {
+        var now = Timestamp.valueOf(LocalDateTime.now(ZONE));
+        List<Object[]> products = new ArrayList<>(chunk.size());
+        List<Object[]> attributes = new ArrayList<>();
+        List<Object[]> tags = new ArrayList<>();
+        List<Object[]> ingredients = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            var p = chunk.get(i);
+            var data = p.data();
+            Long id = ids.get(i);
+            products.add(new Object[]{id, data.nome(), p.type().name(), p.categoryId(), p.subCategoryId(),
+                    data.nome().replace(" ", "-").toLowerCase(), p.imageUrl(), ImageStatus.READY.name(),
+                    data.preco(), data.precoDesconto(), data.descricao(), data.descricaoCompleta(), data.modoUso(),
+                    data.ativo(), now});
+            p.colors().forEach((key, value) -> attributes.add(new Object[]{id, key, value}));
+            p.tags().forEach(name -> tags.add(new Object[]{id, tagId.apply(name.toLowerCase())}));
+            p.ingredients().forEach(name -> ingredients.add(new Object[]{id, ingredientId.apply(name.toLowerCase())}));
+        }
+        jdbc.batchUpdate("""
+                insert into products (product_id, product_name, product_type, product_category, product_sub_category,
+                    product_slug, product_image, product_image_status, product_price, product_discount_price,
+                    product_description, product_complete_description, product_how_to_use, product_active, product_create_at)
+                overriding system value
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""", products);
+        jdbc.batchUpdate("insert into product_attributes (product_id, attr_key, attr_value) values (?, ?, ?)", attributes);
+        jdbc.batchUpdate("insert into product_tag (product_id, tag_id) values (?, ?)", tags);
+        jdbc.batchUpdate("insert into product_ingredient (product_id, ingredient_id) values (?, ?)", ingredients);
+    }
+}
@@ -2,21 +2,32 @@ package com.wiily.pscosmeticos.PsAPI.service;
 
 import com.wiily.pscosmeticos.PsAPI.domain.category.CategoryRepository;
 import com.wiily.pscosmeticos.PsAPI.domain.subcategory.SubCategory;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.BatchTooLarge;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.CategoryNotExist;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.InvalidCursor;
 import com.wiily.pscosmeticos.PsAPI.domain.product.*;
 import com.wiily.pscosmeticos.PsAPI.domain.product.editProductClasses.EditProduct;
 import com.wiily.pscosmeticos.PsAPI.domain.product.dto.datas.CreateProductData;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductBatch;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductCardData;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductGetter;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductSlice;
 import com.wiily.pscosmeticos.PsAPI.domain.subcategory.SubCategoryRepository;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
 import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.ProductTypeNotExists;
 import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.SubCategoryNotBelongToCategory;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -35,9 +46,21 @@ public class ProductService {
     @Autowired
     ImageService imageService;
     @Autowired
+    ImageIngestionService imageIngestionService;
+    @Autowired
     List<EditProduct> edit;
     @Autowired
     SubCategoryRepository subCategoryRepository;
+    @Autowired
+    ApplicationEventPublisher events;
+    @Autowired
+    ProductCountService counts;
+    @Autowired
+    SparseProductService sparseProductService;
+    @Autowired
+    ProductFetchService fetch;
+    @Autowired
+    ProductDocumentService documents;
 
     public Product createProduct(CreateProductData data, MultipartFile image) {
         // Get Category from database
@@ -67,10 +90,13 @@ public class ProductService {
                 sub_category.orElse(null),
                 type,
                 map);
-        // Save the image in the root, and return the URL to GET.
-        var img = imageService.imageProcessor(image, product);
+        counts.added(ProductPlacement.of(product));
+        // Queue the image for encoding, and return the URL to GET.
+        var img = imageIngestionService.submit(image, product);
         // Set image in the product.
         product.setImage(img);
+        repository.save(product);
+        documents.refresh(List.of(product.getId()));
         return product;
     }
 
@@ -87,20 +113,127 @@ public class ProductService {
     }
 
     public Product editProduct(CreateProductData data, Product p) {
+        var before = ProductPlacement.of(p);
         edit.forEach(ep -> ep.edit(p, data));
+        counts.moved(before, ProductPlacement.of(p));
         p.setUpdateTime(LocalDateTime.now(p.getZone()));
         repository.save(p);
+        documents.refresh(List.of(p.getId()));
+        events.publishEvent(CatalogChangedEvent.product(p.getId()));
         return p;
     }
 
     public Product editImage(Product product, MultipartFile image) {
-        try {
-            String path = properties.getStorage().getImageProductRoot() + imageService.getImagePath(product);
-            Files.delete(Path.of(path));
-            product.setImage(imageService.imageProcessor(image, product));
-            return product;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        String oldImage = product.getImage();
+        product.setImage(imageIngestionService.submit(image, product));
+        imageService.releaseImage(oldImage);
+        documents.refresh(List.of(product.getId()));
+        events.publishEvent(CatalogChangedEvent.product(product.getId()));
+        return product;
+    }
+
+    // Listing pages read the stored card documents; products without one yet fall back to the card projection.
+    @Transactional(readOnly = true)
+    public Page<Object> getProducts(String category, Pageable pageable) {
+        Page<Long> ids = category != null
+                ? repository.findPageIdsByCategoryNome(category, pageable)
+                : repository.findPageIds(pageable);
+        Map<Long, Object> cards = new HashMap<>(documents.getCards(ids.getContent()));
+        var missing = ids.getContent().stream().filter(id -> !cards.containsKey(id)).toList();
+        cards.putAll(fetch.fetchCards(missing));
+        return ids.map(cards::get);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ReturnProductCardData> searchProducts(String q, Pageable pageable) {
+        // Results keep their relevance order, so any client sort is dropped.
+        var page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<Long> ids = repository.searchIds(q, page);
+        // The trigram scan is the expensive part on broad terms, so it only runs when nothing matched as words.
+        if (ids.getTotalElements() == 0) ids = repository.searchSimilarIds(q, page);
+        var cards = fetch.fetchCards(ids.getContent());
+        return ids.map(cards::get);
+    }
+
+    // Cursor mode: seeks past the last product seen instead of counting and offsetting, so every slice costs the same.
+    @Transactional(readOnly = true)
+    public ReturnProductSlice getProductSlice(String category, String after, ProductOrder order, int size) {
+        var cursor = after == null || after.isBlank() ? ProductCursor.first(order) : ProductCursor.decode(after);
+        if (cursor.order() != order) throw new InvalidCursor("The cursor was created for the '" + cursor.order() + "' order.");
+        var limit = Limit.of(size + 1);
+        List<Object[]> rows = switch (order) {
+            case RECENT -> category != null
+                    ? repository.findRecentAfterByCategoryNome(category, cursor.time(), cursor.id(), limit)
+                    : repository.findRecentAfter(cursor.time(), cursor.id(), limit);
+            case PRICE -> category != null
+                    ? repository.findPriceAfterByCategoryNome(category, cursor.price(), cursor.id(), limit)
+                    : repository.findPriceAfter(cursor.price(), cursor.id(), limit);
+        };
+        boolean hasNext = rows.size() > size;
+        if (hasNext) rows = rows.subList(0, size);
+        // Price slices are native queries, whose ids come back as the column's own integer type.
+        List<Long> ids = rows.stream().map(row -> ((Number) row[0]).longValue()).toList();
+        var cards = fetch.fetchCards(ids);
+        String next = null;
+        if (hasNext) {
+            Object[] last = rows.getLast();
+            next = ProductCursor.after(order, last[1], ((Number) last[0]).longValue()).encode();
+        }
+        return new ReturnProductSlice(ids.stream().map(cards::get).toList(), size, hasNext, next);
+    }
+
+    // The detail view reads the stored document, or builds it with the batched queries if it isn't there yet.
+    @Transactional(readOnly = true)
+    public Object getProduct(Long id) {
+        var document = documents.getDocument(id);
+        if (document != null) return document;
+        var product = fetch.fetchProducts(List.of(id)).get(id);
+        if (product == null) throw new EntityNotFoundException("Product " + id + " not found");
+        return product;
+    }
+
+    // With ?fields= only the requested columns and collections are loaded.
+    @Transactional(readOnly = true)
+    public SparseProduct getProduct(Long id, ProductFieldSet fieldSet) {
+        var product = sparseProductService.fetch(List.of(id), fieldSet).get(id);
+        if (product == null) throw new EntityNotFoundException("Product " + id + " not found");
+        return product;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<SparseProduct> getProducts(String category, Pageable pageable, ProductFieldSet fieldSet) {
+        Page<Long> ids = category != null
+                ? repository.findPageIdsByCategoryNome(category, pageable)
+                : repository.findPageIds(pageable);
+        var products = sparseProductService.fetch(ids.getContent(), fieldSet);
+        return ids.map(products::get);
+    }
+
+    @Transactional(readOnly = true)
+    public ReturnProductBatch<?> getProductBatch(List<Long> ids, ProductFieldSet fieldSet) {
+        List<Long> requested = ids.stream().distinct().toList();
+        int max = properties.getCatalog().getMaxBatchSize();
+        if (requested.size() > max) throw new BatchTooLarge("At most " + max + " products can be requested at once.");
+        return fieldSet == null
+                ? batch(requested, fetch.fetchProducts(requested))
+                : batch(requested, sparseProductService.fetch(requested, fieldSet));
+    }
+
+    private <T> ReturnProductBatch<T> batch(List<Long> requested, Map<Long, T> products) {
+        List<T> found = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            var product = products.get(id);
+            if (product != null) found.add(product); else missing.add(id);
         }
+        return new ReturnProductBatch<>(found, missing);
+    }
+
+    public void deleteProduct(Long id) {
+        var product = repository.getReferenceById(id);
+        counts.removed(ProductPlacement.of(product));
+        repository.delete(product);
+        imageService.releaseImage(product.getImage());
+        events.publishEvent(CatalogChangedEvent.product(id));
     }
 }
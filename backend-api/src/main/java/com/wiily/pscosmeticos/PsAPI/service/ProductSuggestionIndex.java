@@ -0,0 +1,118 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductSuggestion;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Prefix index over accent-folded name tokens, kept in memory so typeahead never goes to the database.
+@Service
+public class ProductSuggestionIndex {
+    @Autowired
+    ProductRepository repository;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private record Entry(Long id, String name, List<String> tokens) {
+    }
+
+    // Token -> ids of the products whose name contains it, sorted so a prefix is a contiguous range.
+    private final ConcurrentSkipListMap<String, Set<Long>> tokens = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        repository.findAllIdsAndNames().forEach(row -> put((Long) row[0], (String) row[1]));
+        System.out.println("Product suggestion index built, " + entries.size() + " products.");
+    }
+
+    // Re-reads the names of the changed products, or of every product; ids that no longer exist are dropped.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.wholeCatalog()) {
+            reload();
+            return;
+        }
+        if (event.productIds().isEmpty()) return;
+        Set<Long> missing = new HashSet<>(event.productIds());
+        for (Object[] row : repository.findIdsAndNamesByIdIn(event.productIds())) {
+            put((Long) row[0], (String) row[1]);
+            missing.remove((Long) row[0]);
+        }
+        missing.forEach(this::remove);
+    }
+
+    // Entries are replaced in place, so suggestions keep working while it runs.
+    private void reload() {
+        Set<Long> missing = new HashSet<>(entries.keySet());
+        for (Object[] row : repository.findAllIdsAndNames()) {
+            put((Long) row[0], (String) row[1]);
+            missing.remove((Long) row[0]);
+        }
+        missing.forEach(this::remove);
+    }
+
+    // Every token of the query but the last must prefix a token of the name; the last one drives the range scan.
+    public List<ReturnProductSuggestion> suggest(String prefix, int limit) {
+        List<String> query = tokenize(prefix);
+        if (query.isEmpty()) return List.of();
+        String last = query.getLast();
+        List<String> others = query.subList(0, query.size() - 1);
+        Set<Long> seen = new LinkedHashSet<>();
+        for (var ids : tokens.subMap(last, true, last + Character.MAX_VALUE, false).values()) {
+            for (Long id : ids) {
+                if (seen.size() >= limit) break;
+                var entry = entries.get(id);
+                if (entry != null && matchesAll(entry, others)) seen.add(id);
+            }
+            if (seen.size() >= limit) break;
+        }
+        return seen.stream()
+                .map(entries::get)
+                .filter(Objects::nonNull)
+                .map(e -> new ReturnProductSuggestion(e.id(), e.name()))
+                .toList();
+    }
+
+    private boolean matchesAll(Entry entry, List<String> prefixes) {
+        return prefixes.stream().allMatch(p -> entry.tokens().stream().anyMatch(t -> t.startsWith(p)));
+    }
+
+    private synchronized void put(Long id, String name) {
+        remove(id);
+        var entry = new Entry(id, name, tokenize(name));
+        entries.put(id, entry);
+        entry.tokens().forEach(t -> tokens.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    private synchronized void remove(Long id) {
+        var entry = entries.remove(id);
+        if (entry == null) return;
+        for (String t : entry.tokens()) {
+            tokens.computeIfPresent(t, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) return List.of();
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(t -> !t.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
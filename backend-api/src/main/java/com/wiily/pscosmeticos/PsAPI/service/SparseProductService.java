@@ -0,0 +1,76 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductField;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductFieldSet;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.product.SparseProduct;
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.UnknownField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Loads products for ?fields= requests: only the requested columns are selected and only the requested
+// collections are queried. Compiled field sets are cached by their normalized selection.
+@Service
+public class SparseProductService {
+    @Autowired
+    ProductRepository repository;
+    @PersistenceContext
+    EntityManager entityManager;
+
+    // Every distinct selection is one entry; the cap keeps arbitrary client combinations from growing it forever.
+    private static final int MAX_FIELD_SETS = 256;
+    private final Map<Set<ProductField>, ProductFieldSet> fieldSets = new ConcurrentHashMap<>();
+
+    public ProductFieldSet fieldSet(String fields) {
+        Set<ProductField> selected = EnumSet.noneOf(ProductField.class);
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) continue;
+            selected.add(ProductField.fromJson(name.trim())
+                    .orElseThrow(() -> new UnknownField("The field '" + name.trim() + "' does not exist.")));
+        }
+        if (selected.isEmpty()) throw new UnknownField("At least one field has to be requested.");
+        var cached = fieldSets.get(selected);
+        if (cached != null) return cached;
+        var compiled = new ProductFieldSet(selected);
+        if (fieldSets.size() < MAX_FIELD_SETS) fieldSets.putIfAbsent(selected, compiled);
+        return compiled;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, SparseProduct> fetch(List<Long> ids, ProductFieldSet fieldSet) {
+        if (ids.isEmpty()) return Map.of();
+        List<Object[]> rows = entityManager.createQuery(fieldSet.getJpql(), Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+        Map<Long, Map<String, String>> cores = new HashMap<>();
+        if (fieldSet.has(ProductField.CORES)) {
+            for (Object[] row : repository.findColorsByIdIn(ids)) {
+                cores.computeIfAbsent((Long) row[0], k -> new LinkedHashMap<>()).put((String) row[1], (String) row[2]);
+            }
+        }
+        Map<Long, List<String>> ingredients = fieldSet.has(ProductField.INGREDIENTS)
+                ? group(repository.findIngredientNamesByIdIn(ids)) : Map.of();
+        Map<Long, List<String>> tags = fieldSet.has(ProductField.TAGS)
+                ? group(repository.findTagNamesByIdIn(ids)) : Map.of();
+        Map<Long, SparseProduct> result = new HashMap<>();
+        for (Object[] row : rows) {
+            var product = fieldSet.bind(row, cores, ingredients, tags);
+            result.put(product.id(), product);
+        }
+        return result;
+    }
+
+    private Map<Long, List<String>> group(List<Object[]> rows) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+        return grouped;
+    }
+}
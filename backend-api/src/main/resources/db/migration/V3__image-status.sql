@@ -0,0 +1,2 @@
+ALTER TABLE products ADD COLUMN product_image_status VARCHAR(20) NOT NULL DEFAULT 'READY';
+ALTER TABLE categories ADD COLUMN category_image_status VARCHAR(20) NOT NULL DEFAULT 'READY';
@@ -0,0 +1,7 @@
+UPDATE products SET product_create_at = now() WHERE product_create_at IS NULL;
+ALTER TABLE products ALTER COLUMN product_create_at SET NOT NULL;
+
+CREATE INDEX idx_products_recent ON products (product_create_at DESC, product_id DESC);
+CREATE INDEX idx_products_price ON products (product_price, product_id);
+CREATE INDEX idx_products_category_recent ON products (product_category, product_create_at DESC, product_id DESC);
+CREATE INDEX idx_products_category_price ON products (product_category, product_price, product_id);
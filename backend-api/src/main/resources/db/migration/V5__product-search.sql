@@ -0,0 +1,65 @@
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() is only STABLE, indexes need an IMMUTABLE wrapper.
+CREATE FUNCTION immutable_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent', $1) $$;
+
+-- Portuguese stemming that ignores accents, so "hidratacao" matches "hidratação".
+CREATE TEXT SEARCH CONFIGURATION pt_unaccent (COPY = portuguese);
+ALTER TEXT SEARCH CONFIGURATION pt_unaccent
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+ALTER TABLE products ADD COLUMN product_search tsvector;
+
+-- Name weighs most, then tags, description and ingredients.
+CREATE FUNCTION product_search_document(p_id INT, p_name TEXT, p_description TEXT) RETURNS tsvector
+    LANGUAGE sql STABLE
+AS $$
+    SELECT setweight(to_tsvector('pt_unaccent', coalesce(p_name, '')), 'A')
+        || setweight(to_tsvector('pt_unaccent', coalesce((
+               SELECT string_agg(t.tag_name, ' ') FROM product_tag pt JOIN tags t ON t.tag_id = pt.tag_id
+               WHERE pt.product_id = p_id), '')), 'B')
+        || setweight(to_tsvector('pt_unaccent', coalesce(p_description, '')), 'C')
+        || setweight(to_tsvector('pt_unaccent', coalesce((
+               SELECT string_agg(i.ingredient_name, ' ') FROM product_ingredient pi JOIN ingredients i ON i.ingredient_id = pi.ingredient_id
+               WHERE pi.product_id = p_id), '')), 'D')
+$$;
+
+CREATE FUNCTION products_search_refresh() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.product_search := product_search_document(NEW.product_id, NEW.product_name, NEW.product_description);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_products_search
+    BEFORE INSERT OR UPDATE OF product_name, product_description ON products
+    FOR EACH ROW EXECUTE FUNCTION products_search_refresh();
+
+-- Tags and ingredients live in join tables, touching the row re-runs the trigger above.
+CREATE FUNCTION product_links_search_refresh() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    UPDATE products SET product_name = product_name
+    WHERE product_id = CASE WHEN TG_OP = 'DELETE' THEN OLD.product_id ELSE NEW.product_id END;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_product_tag_search
+    AFTER INSERT OR DELETE ON product_tag
+    FOR EACH ROW EXECUTE FUNCTION product_links_search_refresh();
+
+CREATE TRIGGER trg_product_ingredient_search
+    AFTER INSERT OR DELETE ON product_ingredient
+    FOR EACH ROW EXECUTE FUNCTION product_links_search_refresh();
+
+UPDATE products SET product_search = product_search_document(product_id, product_name, product_description);
+
+CREATE INDEX idx_products_search ON products USING gin (product_search);
+-- Typo fallback: trigram similarity on the accent-free name.
+CREATE INDEX idx_products_name_trgm ON products USING gin (immutable_unaccent(lower(product_name)) gin_trgm_ops);
@@ -0,0 +1,11 @@
+ALTER TABLE categories ADD COLUMN category_active_products INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE sub_categories ADD COLUMN sub_category_total_products INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE sub_categories ADD COLUMN sub_category_active_products INTEGER NOT NULL DEFAULT 0;
+
+UPDATE categories c SET
+    category_total_products = (SELECT count(*) FROM products p WHERE p.product_category = c.category_id),
+    category_active_products = (SELECT count(*) FROM products p WHERE p.product_category = c.category_id AND p.product_active);
+
+UPDATE sub_categories s SET
+    sub_category_total_products = (SELECT count(*) FROM products p WHERE p.product_sub_category = s.sub_category_id),
+    sub_category_active_products = (SELECT count(*) FROM products p WHERE p.product_sub_category = s.sub_category_id AND p.product_active);
@@ -0,0 +1,9 @@
+-- Read model: each product's public documents, rewritten by the write paths in the same transaction.
+CREATE TABLE product_documents (
+    product_id INT PRIMARY KEY,
+    product_document JSONB NOT NULL,
+    product_card JSONB NOT NULL,
+    document_update_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_product_documents_product
+        FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE
+);
@@ -0,0 +1,70 @@
+-- The row trigger names no columns, so ddl-auto can still alter them; it rebuilds the vector only when name or
+-- description actually change.
+DROP TRIGGER trg_products_search ON products;
+
+CREATE OR REPLACE FUNCTION products_search_refresh() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'INSERT'
+        OR NEW.product_name IS DISTINCT FROM OLD.product_name
+        OR NEW.product_description IS DISTINCT FROM OLD.product_description THEN
+        NEW.product_search := product_search_document(NEW.product_id, NEW.product_name, NEW.product_description);
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_products_search
+    BEFORE INSERT OR UPDATE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_search_refresh();
+
+-- The id is BIGINT so the function still resolves once ddl-auto widens product_id to bigint; INT ids cast up to it.
+DROP FUNCTION product_search_document(INT, TEXT, TEXT);
+
+CREATE FUNCTION product_search_document(p_id BIGINT, p_name TEXT, p_description TEXT) RETURNS tsvector
+    LANGUAGE sql STABLE
+AS $$
+    SELECT setweight(to_tsvector('pt_unaccent', coalesce(p_name, '')), 'A')
+        || setweight(to_tsvector('pt_unaccent', coalesce((
+               SELECT string_agg(t.tag_name, ' ') FROM product_tag pt JOIN tags t ON t.tag_id = pt.tag_id
+               WHERE pt.product_id = p_id), '')), 'B')
+        || setweight(to_tsvector('pt_unaccent', coalesce(p_description, '')), 'C')
+        || setweight(to_tsvector('pt_unaccent', coalesce((
+               SELECT string_agg(i.ingredient_name, ' ') FROM product_ingredient pi JOIN ingredients i ON i.ingredient_id = pi.ingredient_id
+               WHERE pi.product_id = p_id), '')), 'D')
+$$;
+
+-- Link changes rebuild each affected product once per statement instead of once per link row.
+DROP TRIGGER trg_product_tag_search ON product_tag;
+DROP TRIGGER trg_product_ingredient_search ON product_ingredient;
+DROP FUNCTION product_links_search_refresh();
+
+-- EXECUTE plans the update on every call, with the real size of the transition table: a cached plan made for a
+-- bulk statement would scan all of products again for every single-row statement after it.
+CREATE FUNCTION product_links_search_refresh() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    EXECUTE 'UPDATE products
+             SET product_search = product_search_document(product_id, product_name, product_description)
+             WHERE product_id IN (SELECT product_id FROM changed_links)';
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_product_tag_search_insert
+    AFTER INSERT ON product_tag REFERENCING NEW TABLE AS changed_links
+    FOR EACH STATEMENT EXECUTE FUNCTION product_links_search_refresh();
+
+CREATE TRIGGER trg_product_tag_search_delete
+    AFTER DELETE ON product_tag REFERENCING OLD TABLE AS changed_links
+    FOR EACH STATEMENT EXECUTE FUNCTION product_links_search_refresh();
+
+CREATE TRIGGER trg_product_ingredient_search_insert
+    AFTER INSERT ON product_ingredient REFERENCING NEW TABLE AS changed_links
+    FOR EACH STATEMENT EXECUTE FUNCTION product_links_search_refresh();
+
+CREATE TRIGGER trg_product_ingredient_search_delete
+    AFTER DELETE ON product_ingredient REFERENCING OLD TABLE AS changed_links
+    FOR EACH STATEMENT EXECUTE FUNCTION product_links_search_refresh();
@@ -0,0 +1,39 @@
+package com.wiily.pscosmeticos.PsAPI.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogControllerTests {
+
+	@Test
+	void gzipIsAcceptedWhenListed() {
+		assertTrue(CatalogController.acceptsGzip("gzip"));
+		assertTrue(CatalogController.acceptsGzip("br, gzip, deflate"));
+		assertTrue(CatalogController.acceptsGzip("deflate;q=1.0, GZIP;q=0.5"));
+		assertTrue(CatalogController.acceptsGzip("x-gzip"));
+	}
+
+	@Test
+	void gzipIsRefusedWithZeroQuality() {
+		assertFalse(CatalogController.acceptsGzip("gzip;q=0"));
+		assertFalse(CatalogController.acceptsGzip("gzip ; q=0.000, identity"));
+		assertFalse(CatalogController.acceptsGzip("*, gzip;q=0"));
+	}
+
+	@Test
+	void wildcardCoversGzipUnlessListed() {
+		assertTrue(CatalogController.acceptsGzip("*"));
+		assertFalse(CatalogController.acceptsGzip("*;q=0"));
+		assertTrue(CatalogController.acceptsGzip("*;q=0, gzip"));
+	}
+
+	@Test
+	void gzipIsRefusedWhenAbsent() {
+		assertFalse(CatalogController.acceptsGzip(null));
+		assertFalse(CatalogController.acceptsGzip(""));
+		assertFalse(CatalogController.acceptsGzip("identity, br"));
+		assertFalse(CatalogController.acceptsGzip("gzipped"));
+	}
+}
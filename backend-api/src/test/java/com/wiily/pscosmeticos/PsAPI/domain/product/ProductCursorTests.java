@@ -0,0 +1,88 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import com.wiily.pscosmeticos.PsAPI.infra.exception.exceptions.InvalidCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCursorTests {
+
+	@Test
+	void recentCursorRoundTrips() {
+		var time = LocalDateTime.of(2024, 5, 17, 13, 45, 12, 123456000);
+		var cursor = ProductCursor.after(ProductOrder.RECENT, time, 42);
+
+		var decoded = ProductCursor.decode(cursor.encode());
+
+		assertEquals(cursor, decoded);
+		assertEquals(time, decoded.time());
+		assertEquals(42, decoded.id());
+	}
+
+	@Test
+	void priceCursorKeepsTheExactDecimal() {
+		var cursor = ProductCursor.after(ProductOrder.PRICE, new BigDecimal("19.999"), 7);
+
+		var decoded = ProductCursor.decode(cursor.encode());
+
+		assertEquals(new BigDecimal("19.999"), decoded.price());
+		assertEquals(7, decoded.id());
+	}
+
+	@Test
+	void priceCursorIsWrittenWithoutExponent() {
+		assertEquals("10000000", ProductCursor.after(ProductOrder.PRICE, new BigDecimal("1E+7"), 1).key());
+		assertEquals("10000000", ProductCursor.after(ProductOrder.PRICE, 1.0E7, 1).key());
+		assertEquals("0.0000001", ProductCursor.after(ProductOrder.PRICE, new BigDecimal("1E-7"), 1).key());
+	}
+
+	@Test
+	void priceCursorFromDoubleReadsBackAsTheSameDouble() {
+		double price = 0.1 + 0.2;
+
+		var decoded = ProductCursor.decode(ProductCursor.after(ProductOrder.PRICE, price, 3).encode());
+
+		assertEquals(price, decoded.price().doubleValue());
+	}
+
+	@Test
+	void firstCursorsSortBeforeEveryProduct() {
+		var price = ProductCursor.decode(ProductCursor.first(ProductOrder.PRICE).encode());
+		var recent = ProductCursor.decode(ProductCursor.first(ProductOrder.RECENT).encode());
+
+		assertEquals(new BigDecimal("-1"), price.price());
+		assertEquals(0, price.id());
+		assertEquals(Long.MAX_VALUE, recent.id());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"not base64!",
+			"PRICE|10.5",
+			"PRICE|10.5|1|2",
+			"CHEAPEST|10.5|1",
+			"PRICE|ten|1",
+			"PRICE|1e|1",
+			"RECENT|2024-13-01T00:00|1",
+			"RECENT|2024-05-17T13:45|x",
+			"PRICE|10.5|"
+	})
+	void rejectsMalformedCursors(String raw) {
+		String cursor = raw.equals("not base64!") ? raw : encode(raw);
+
+		assertThrows(InvalidCursor.class, () -> ProductCursor.decode(cursor));
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,45 @@
+package com.wiily.pscosmeticos.PsAPI.domain.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductFieldSetTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void leavesOutNullAndEmptyValuesLikeTheFullDocument() throws Exception {
+		var fieldSet = new ProductFieldSet(EnumSet.of(ProductField.NAME, ProductField.CORES, ProductField.IMAGE_URL,
+				ProductField.SUBCATEGORY, ProductField.PRICE, ProductField.DESCRIPTION, ProductField.INGREDIENTS,
+				ProductField.TAGS, ProductField.UPDATE_AT));
+		// id, name, image, subcategory id and name, price, description, updateAt
+		Object[] row = {7L, "Shampoo", "", null, null, 0.0, null, null};
+
+		var product = fieldSet.bind(row, Map.of(), Map.of(), Map.of(7L, List.of("vegano")));
+
+		assertEquals("""
+				{"name":"Shampoo","subcategory":{"id":null,"nome":"Sem subcategoria"},"price":0.0,"tags":["vegano"]}""",
+				objectMapper.writeValueAsString(product));
+	}
+
+	@Test
+	void writesEveryPresentValue() throws Exception {
+		var fieldSet = new ProductFieldSet(EnumSet.of(ProductField.ID, ProductField.TIPO, ProductField.CORES,
+				ProductField.CATEGORY, ProductField.INGREDIENTS, ProductField.ACTIVE));
+		// id, id, type, category id and name, active
+		Object[] row = {3L, 3L, PRODUCT_TYPE.MULTI_COLOR, 1L, "Cabelos", false};
+
+		var product = fieldSet.bind(row, Map.of(3L, Map.of("Rosa", "#f0a")), Map.of(3L, List.of("Argan")), Map.of());
+
+		assertEquals("""
+				{"id":3,"tipo":"MULTI_COLOR","cores":{"Rosa":"#f0a"},"category":{"id":1,"nome":"Cabelos"},\
+				"ingredients":["Argan"],"active":false}""",
+				objectMapper.writeValueAsString(product));
+	}
+}
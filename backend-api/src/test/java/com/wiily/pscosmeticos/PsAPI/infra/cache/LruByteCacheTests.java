@@ -0,0 +1,143 @@
+package com.wiily.pscosmeticos.PsAPI.infra.cache;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductPageKey;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LruByteCacheTests {
+
+	@Test
+	void evictsLeastRecentlyUsedWhenOverTheByteBudget() {
+		var cache = new LruByteCache<String>(30, 30);
+		cache.put("a", new byte[10]);
+		cache.put("b", new byte[10]);
+		cache.put("c", new byte[10]);
+		cache.get("a");
+
+		cache.put("d", new byte[10]);
+
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertNotNull(cache.get("d"));
+		assertEquals(30, cache.stats().bytes());
+		assertEquals(1, cache.stats().evictions());
+	}
+
+	@Test
+	void evictsAsManyEntriesAsTheNewValueNeeds() {
+		var cache = new LruByteCache<String>(30, 30);
+		cache.put("a", new byte[10]);
+		cache.put("b", new byte[10]);
+		cache.put("c", new byte[10]);
+
+		cache.put("big", new byte[25]);
+
+		assertNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNull(cache.get("c"));
+		assertNotNull(cache.get("big"));
+		assertEquals(25, cache.stats().bytes());
+		assertEquals(3, cache.stats().evictions());
+	}
+
+	@Test
+	void doesNotStoreValuesOverTheEntryLimit() {
+		var cache = new LruByteCache<String>(100, 20);
+		cache.put("small", new byte[10]);
+
+		var returned = cache.put("large", new byte[21]);
+
+		assertEquals(21, returned.remaining());
+		assertFalse(cache.accepts(21));
+		assertNull(cache.get("large"));
+		assertNotNull(cache.get("small"));
+		assertEquals(10, cache.stats().bytes());
+	}
+
+	@Test
+	void replacingAValueCountsOnlyTheNewSize() {
+		var cache = new LruByteCache<String>(100, 100);
+		cache.put("a", new byte[40]);
+
+		cache.put("a", new byte[15]);
+
+		assertEquals(15, cache.stats().bytes());
+		assertEquals(1, cache.stats().entries());
+		assertEquals(15, cache.get("a").remaining());
+	}
+
+	@Test
+	void returnsReadOnlyCopiesOfTheStoredBytes() {
+		var cache = new LruByteCache<String>(100, 100);
+		cache.put("a", new byte[]{1, 2, 3});
+
+		ByteBuffer first = cache.get("a");
+		byte[] read = new byte[first.remaining()];
+		first.get(read);
+
+		assertTrue(first.isReadOnly());
+		assertArrayEquals(new byte[]{1, 2, 3}, read);
+		assertEquals(3, cache.get("a").remaining());
+	}
+
+	@Test
+	void pagesFromAnOlderCatalogVersionAreNotServed() {
+		var cache = new LruByteCache<ProductPageKey>(100, 100);
+		var stale = new ProductPageKey(1, "cabelos", 0, 20, "UNSORTED");
+		var current = new ProductPageKey(2, "cabelos", 0, 20, "UNSORTED");
+		cache.put(stale, new byte[10]);
+
+		assertNull(cache.get(current));
+
+		cache.invalidateIf(key -> key.version() < current.version());
+
+		assertNull(cache.get(stale));
+		assertEquals(0, cache.stats().entries());
+		assertEquals(0, cache.stats().bytes());
+	}
+
+	@Test
+	void invalidateAndClearReleaseTheirBytes() {
+		var cache = new LruByteCache<Long>(100, 100);
+		cache.put(1L, new byte[10]);
+		cache.put(2L, new byte[20]);
+
+		cache.invalidate(1L);
+		assertEquals(20, cache.stats().bytes());
+
+		cache.clear();
+		assertEquals(0, cache.stats().bytes());
+		assertEquals(0, cache.stats().entries());
+	}
+
+	@Test
+	void countsHitsAndMisses() {
+		var cache = new LruByteCache<String>(100, 100);
+		cache.put("a", new byte[10]);
+
+		cache.get("a");
+		cache.get("a");
+		cache.get("a");
+		cache.get("missing");
+
+		var stats = cache.stats();
+		assertEquals(3, stats.hits());
+		assertEquals(1, stats.misses());
+		assertEquals(0.75, stats.hitRatio());
+		assertEquals(100, stats.maxBytes());
+	}
+
+	@Test
+	void hitRatioIsZeroBeforeAnyLookup() {
+		assertEquals(0, new LruByteCache<String>(100, 100).stats().hitRatio());
+	}
+}
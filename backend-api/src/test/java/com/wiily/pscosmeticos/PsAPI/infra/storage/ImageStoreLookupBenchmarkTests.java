@@ -0,0 +1,80 @@
+package com.wiily.pscosmeticos.PsAPI.infra.storage;
+
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Image lookup latency as the store grows to 100k images, next to the Files.walk lookup the sharded layout replaced.
+// Opt-in with -Dbenchmark=true; the files are written to a temporary directory.
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ImageStoreLookupBenchmarkTests {
+
+	private static final List<Integer> SIZES = List.of(1_000, 10_000, 100_000);
+	private static final int LOOKUPS = 10_000;
+	private static final int WALKS = 5;
+
+	@TempDir
+	Path root;
+
+	@Test
+	void lookupStaysFlatUpTo100kImages() throws Exception {
+		var properties = new AppProperties();
+		properties.getStorage().setImageRoot(root.toString());
+		var store = new ShardedFileSystemImageStore();
+		store.properties = properties;
+		store.init();
+		var random = new Random(42);
+		int written = 0;
+		for (int size : SIZES) {
+			for (; written < size; written++) {
+				store.put(name(written), out -> out.write(new byte[16]));
+			}
+			long[] times = new long[LOOKUPS];
+			for (int i = 0; i < LOOKUPS; i++) {
+				String name = name(random.nextInt(size));
+				long start = System.nanoTime();
+				assertTrue(store.exists(name));
+				assertNotNull(store.get(name));
+				times[i] = System.nanoTime() - start;
+			}
+			Arrays.sort(times);
+			assertFalse(store.exists(name(size)));
+			System.out.printf("%d images: store lookup p50 %.1f us, p99 %.1f us; Files.walk lookup %.1f ms%n",
+					size, times[LOOKUPS / 2] / 1e3, times[LOOKUPS * 99 / 100] / 1e3, walk(name(random.nextInt(size))) / 1e6);
+		}
+	}
+
+	// The old lookup: walk the whole tree until the name turns up.
+	private long walk(String name) throws IOException {
+		long total = 0;
+		for (int i = 0; i < WALKS; i++) {
+			long start = System.nanoTime();
+			try (Stream<Path> files = Files.walk(root)) {
+				assertTrue(files.anyMatch(path -> path.getFileName().toString().equals(name)));
+			}
+			total += System.nanoTime() - start;
+		}
+		return total / WALKS;
+	}
+
+	private static String name(int i) throws Exception {
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+		return HexFormat.of().formatHex(digest) + ".webp";
+	}
+}
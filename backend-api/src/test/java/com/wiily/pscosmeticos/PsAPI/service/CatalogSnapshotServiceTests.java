@@ -0,0 +1,46 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogSnapshotServiceTests {
+
+	@TempDir
+	Path root;
+
+	@Test
+	void pruneKeepsOnlyListedVersions() throws IOException {
+		for (String name : new String[]{
+				"catalog-aaaa.json", "catalog-aaaa.json.gz",
+				"catalog-bbbb.json", "catalog-bbbb.json.gz",
+				"catalog-cccc.json", "catalog-cccc.json.gz",
+				"snapshot-123.tmp", "notes.txt"}) {
+			Files.createFile(root.resolve(name));
+		}
+
+		CatalogSnapshotService.prune(root, Set.of("bbbb"));
+
+		assertEquals(Set.of("catalog-bbbb.json", "catalog-bbbb.json.gz", "notes.txt"), names());
+	}
+
+	@Test
+	void pruneOfEmptyRootDoesNothing() throws IOException {
+		CatalogSnapshotService.prune(root, Set.of("aaaa"));
+
+		assertEquals(Set.of(), names());
+	}
+
+	private Set<String> names() throws IOException {
+		try (var files = Files.list(root)) {
+			return files.map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+		}
+	}
+}
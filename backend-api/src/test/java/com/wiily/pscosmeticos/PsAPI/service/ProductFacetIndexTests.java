@@ -0,0 +1,153 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductFacet;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import com.wiily.pscosmeticos.PsAPI.infra.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTests {
+
+	private static final PageRequest ALL = PageRequest.of(0, 20);
+
+	private ProductFacetIndex index;
+	private ProductRepository repository;
+
+	// Default price bands: 0-25, 25-50, 50-100, 100-200 and 200+.
+	@BeforeEach
+	void build() {
+		repository = mock(ProductRepository.class);
+		when(repository.findFacetRows()).thenReturn(List.of(
+				new Object[]{1L, "Cabelos", "Shampoo", 19.9, true},
+				new Object[]{2L, "Cabelos", null, 30.0, true},
+				new Object[]{3L, "Maquiagem", "Batom", 60.0, false},
+				new Object[]{4L, "Cabelos", "Shampoo", 250.0, true}));
+		when(repository.findAllTagNames()).thenReturn(List.of(
+				new Object[]{1L, "Vegano"},
+				new Object[]{1L, "Cachos"},
+				new Object[]{2L, "vegano"},
+				new Object[]{3L, "Matte"}));
+		when(repository.findAllIngredientNames()).thenReturn(List.of(
+				new Object[]{1L, "Argan"},
+				new Object[]{4L, "argan"}));
+		index = new ProductFacetIndex();
+		index.repository = repository;
+		index.properties = new AppProperties();
+		index.build();
+	}
+
+	@Test
+	void withoutFiltersCountsEveryProduct() {
+		var result = index.filter(Map.of(), ALL);
+
+		assertEquals(List.of(1L, 2L, 3L, 4L), result.ids());
+		assertEquals(4, result.total());
+		assertEquals(Map.of("cabelos", 3, "maquiagem", 1), result.facets().get("category"));
+		assertEquals(Map.of("shampoo", 2, "batom", 1), result.facets().get("subcategory"));
+		assertEquals(Map.of("0-25", 1, "25-50", 1, "50-100", 1, "200+", 1), result.facets().get("price"));
+		assertEquals(Map.of("true", 3, "false", 1), result.facets().get("active"));
+		assertEquals(Map.of("argan", 2), result.facets().get("ingredient"));
+	}
+
+	@Test
+	void facetsAreIntersected() {
+		var result = index.filter(Map.of(ProductFacet.CATEGORY, List.of("Cabelos"), ProductFacet.TAG, List.of("vegano")), ALL);
+
+		assertEquals(List.of(1L, 2L), result.ids());
+		assertEquals(2, result.total());
+	}
+
+	@Test
+	void valuesOfOneFacetAreUnited() {
+		var result = index.filter(Map.of(ProductFacet.TAG, List.of("vegano", "matte")), ALL);
+
+		assertEquals(List.of(1L, 2L, 3L), result.ids());
+	}
+
+	@Test
+	void eachFacetIsCountedWithoutItsOwnFilter() {
+		var result = index.filter(Map.of(ProductFacet.CATEGORY, List.of("cabelos"), ProductFacet.TAG, List.of("vegano")), ALL);
+
+		// Tags under the category filter only; categories under the tag filter only.
+		assertEquals(Map.of("vegano", 2, "cachos", 1), result.facets().get("tag"));
+		assertEquals(Map.of("cabelos", 2), result.facets().get("category"));
+		// Every other facet sees both filters.
+		assertEquals(Map.of("0-25", 1, "25-50", 1), result.facets().get("price"));
+	}
+
+	@Test
+	void valuesAreMatchedIgnoringCase() {
+		assertEquals(List.of(1L, 2L, 4L), index.filter(Map.of(ProductFacet.CATEGORY, List.of("CABELOS")), ALL).ids());
+	}
+
+	@Test
+	void unknownValuesMatchNothing() {
+		var result = index.filter(Map.of(ProductFacet.CATEGORY, List.of("Perfumes")), ALL);
+
+		assertEquals(List.of(), result.ids());
+		assertEquals(0, result.total());
+	}
+
+	@Test
+	void pagesThroughTheMatches() {
+		var result = index.filter(Map.of(), PageRequest.of(1, 3));
+
+		assertEquals(List.of(4L), result.ids());
+		assertEquals(4, result.total());
+	}
+
+	@Test
+	void changedProductsMoveBetweenValues() {
+		when(repository.findFacetRowsByIdIn(any())).thenReturn(List.<Object[]>of(new Object[]{2L, "Maquiagem", "Batom", 45.0, true}));
+		when(repository.findTagNamesByIdIn(any())).thenReturn(List.<Object[]>of(new Object[]{2L, "Matte"}));
+		when(repository.findIngredientNamesByIdIn(any())).thenReturn(List.of());
+
+		index.onCatalogChanged(CatalogChangedEvent.product(2L));
+
+		var result = index.filter(Map.of(), ALL);
+		assertEquals(Map.of("cabelos", 2, "maquiagem", 2), result.facets().get("category"));
+		assertEquals(Map.of("vegano", 1, "cachos", 1, "matte", 2), result.facets().get("tag"));
+		assertEquals(List.of(2L, 3L), index.filter(Map.of(ProductFacet.TAG, List.of("matte")), ALL).ids());
+	}
+
+	@Test
+	void deletedProductsAreCleared() {
+		when(repository.findFacetRowsByIdIn(any())).thenReturn(List.of());
+		when(repository.findTagNamesByIdIn(any())).thenReturn(List.of());
+		when(repository.findIngredientNamesByIdIn(any())).thenReturn(List.of());
+
+		index.onCatalogChanged(CatalogChangedEvent.product(3L));
+
+		var result = index.filter(Map.of(), ALL);
+		assertEquals(List.of(1L, 2L, 4L), result.ids());
+		assertEquals(Map.of("cabelos", 3), result.facets().get("category"));
+		assertEquals(Map.of("vegano", 2, "cachos", 1), result.facets().get("tag"));
+	}
+
+	@Test
+	void reloadsEveryProductWhenAllProductsChanged() {
+		when(repository.findFacetRows()).thenReturn(List.<Object[]>of(
+				new Object[]{1L, "Cabelos", "Shampoo", 19.9, true},
+				new Object[]{5L, "Perfumes", null, 120.0, true}));
+		when(repository.findAllTagNames()).thenReturn(List.<Object[]>of(new Object[]{5L, "Floral"}));
+		when(repository.findAllIngredientNames()).thenReturn(List.of());
+
+		index.onCatalogChanged(CatalogChangedEvent.allProducts());
+
+		var result = index.filter(Map.of(), ALL);
+		assertEquals(List.of(1L, 5L), result.ids());
+		assertEquals(Map.of("cabelos", 1, "perfumes", 1), result.facets().get("category"));
+		assertEquals(Map.of("floral", 1), result.facets().get("tag"));
+		assertEquals(Map.of(), result.facets().get("ingredient"));
+	}
+}
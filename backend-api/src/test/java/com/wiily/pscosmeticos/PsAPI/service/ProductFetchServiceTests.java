@@ -0,0 +1,122 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductOrder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Listing and detail loads must cost the same number of statements whatever the page size.
+// The seed is written in the test transaction and rolled back with it.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ProductFetchServiceTests {
+
+	private static final String CATEGORY = "fetch-test-category";
+
+	@Autowired
+	ProductService productService;
+	@Autowired
+	ProductFetchService fetch;
+	@Autowired
+	ProductDocumentService documents;
+	@Autowired
+	JdbcTemplate jdbc;
+	@Autowired
+	EntityManager entityManager;
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private List<Long> ids;
+
+	@BeforeEach
+	void seed() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Long category = jdbc.queryForObject("""
+				insert into categories (category_name, category_slug, category_description, category_image_url, category_total_products, category_active)
+				values (?, ?, 'test', 'none', 0, true) returning category_id""", Long.class, CATEGORY, CATEGORY);
+		Long subCategory = jdbc.queryForObject("""
+				insert into sub_categories (sub_category_name, sub_category_category_id) values ('fetch-test-sub', ?) returning sub_category_id""",
+				Long.class, category);
+		ids = jdbc.queryForList("""
+				insert into products (product_name, product_type, product_category, product_sub_category, product_slug, product_image,
+				    product_price, product_discount_price, product_description, product_complete_description, product_how_to_use,
+				    product_active, product_create_at)
+				select 'Fetch test ' || g, 'MULTI_COLOR', ?, ?, 'fetch-test-' || g, 'none', g, 0, 'd', 'd', 'h', true, now() - g * interval '1 second'
+				from generate_series(1, 50) g
+				returning product_id""", Long.class, category, subCategory);
+		jdbc.update("insert into tags (tag_name) select 'fetch-test-tag-' || g from generate_series(1, 3) g");
+		jdbc.update("insert into ingredients (ingredient_name) select 'fetch-test-ingredient-' || g from generate_series(1, 3) g");
+		jdbc.update("""
+				insert into product_tag (product_id, tag_id)
+				select p.product_id, t.tag_id from products p, tags t
+				where p.product_category = ? and t.tag_name like 'fetch-test-tag-%'""", category);
+		jdbc.update("""
+				insert into product_ingredient (product_id, ingredient_id)
+				select p.product_id, i.ingredient_id from products p, ingredients i
+				where p.product_category = ? and i.ingredient_name like 'fetch-test-ingredient-%'""", category);
+		jdbc.update("""
+				insert into product_attributes (product_id, attr_key, attr_value)
+				select p.product_id, c, '#000' from products p, unnest(array['Rosa', 'Nude']) c
+				where p.product_category = ?""", category);
+	}
+
+	@Test
+	void listingPageStatementsDoNotGrowWithPageSize() {
+		assertEquals(countStatements(() -> productService.getProducts(CATEGORY, PageRequest.of(0, 5))),
+				countStatements(() -> productService.getProducts(CATEGORY, PageRequest.of(0, 50))));
+	}
+
+	@Test
+	void listingPageFromDocumentsStatementsDoNotGrowWithPageSize() {
+		documents.refresh(ids);
+		assertEquals(countStatements(() -> productService.getProducts(CATEGORY, PageRequest.of(0, 5))),
+				countStatements(() -> productService.getProducts(CATEGORY, PageRequest.of(0, 50))));
+	}
+
+	@Test
+	void productDetailsStatementsDoNotGrowWithBatchSize() {
+		assertEquals(countStatements(() -> fetch.fetchProducts(ids.subList(0, 5))),
+				countStatements(() -> fetch.fetchProducts(ids)));
+	}
+
+	@Test
+	void priceSlicesVisitEveryProductOnce() {
+		// Prices that round together at two decimals, so a rounded cursor would skip or repeat them.
+		jdbc.update("update products set product_price = 10.004 where product_id in (?, ?, ?)", ids.get(0), ids.get(1), ids.get(2));
+		jdbc.update("update products set product_price = 10.005 where product_id in (?, ?, ?)", ids.get(3), ids.get(4), ids.get(5));
+		jdbc.update("update products set product_price = 10.0049 where product_id = ?", ids.get(6));
+		List<Long> seen = new ArrayList<>();
+		String after = null;
+		do {
+			var slice = productService.getProductSlice(CATEGORY, after, ProductOrder.PRICE, 4);
+			slice.content().forEach(card -> seen.add(card.id()));
+			after = slice.nextCursor();
+		} while (after != null);
+
+		assertEquals(ids.size(), seen.size());
+		assertEquals(new HashSet<>(ids), new HashSet<>(seen));
+	}
+
+	private long countStatements(Runnable load) {
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+		load.run();
+		return statistics.getPrepareStatementCount();
+	}
+}
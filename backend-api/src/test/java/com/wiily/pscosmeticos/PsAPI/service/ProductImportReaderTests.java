@@ -0,0 +1,120 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductImportFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProductImportReaderTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void quotedCellsKeepTheirCommas() throws IOException {
+		var rows = read(ProductImportFormat.CSV, """
+				nome,descricao
+				"Shampoo, 300ml","Limpa, hidrata e perfuma"
+				""");
+
+		assertEquals(1, rows.size());
+		assertEquals("Shampoo, 300ml", rows.get(0).fields().get("nome").asText());
+		assertEquals("Limpa, hidrata e perfuma", rows.get(0).fields().get("descricao").asText());
+	}
+
+	@Test
+	void doubledQuotesAreOneQuote() throws IOException {
+		var rows = read(ProductImportFormat.CSV, "nome,descricao\n\"O \"\"original\"\"\",sem aspas\n");
+
+		assertEquals("O \"original\"", rows.get(0).fields().get("nome").asText());
+		assertEquals("sem aspas", rows.get(0).fields().get("descricao").asText());
+	}
+
+	@Test
+	void quotedCellsMaySpanLines() throws IOException {
+		var rows = read(ProductImportFormat.CSV, """
+				nome,modoUso
+				Mascara,"Aplique.
+				Enxague."
+				Oleo,Use pouco
+				""");
+
+		assertEquals(2, rows.size());
+		assertEquals("Aplique.\nEnxague.", rows.get(0).fields().get("modoUso").asText());
+		assertEquals(2, rows.get(0).line());
+		// The line count follows the physical lines, so rejections point at the right place.
+		assertEquals(4, rows.get(1).line());
+	}
+
+	@Test
+	void readsCrlfLineEndings() throws IOException {
+		var rows = read(ProductImportFormat.CSV, "nome,preco\r\nShampoo,10.5\r\nCondicionador,12\r\n");
+
+		assertEquals(2, rows.size());
+		assertEquals("Shampoo", rows.get(0).fields().get("nome").asText());
+		assertEquals("10.5", rows.get(0).fields().get("preco").asText());
+		assertEquals("12", rows.get(1).fields().get("preco").asText());
+		assertEquals(3, rows.get(1).line());
+	}
+
+	@Test
+	void skipsAByteOrderMark() throws IOException {
+		var csv = read(ProductImportFormat.CSV, "\uFEFFnome,preco\nShampoo,10\n");
+		var ndjson = read(ProductImportFormat.NDJSON, "\uFEFF{\"nome\":\"Shampoo\"}\n");
+
+		assertEquals("Shampoo", csv.get(0).fields().get("nome").asText());
+		assertNull(ndjson.get(0).error());
+		assertEquals("Shampoo", ndjson.get(0).fields().get("nome").asText());
+	}
+
+	@Test
+	void splitsListsAndColors() throws IOException {
+		var rows = read(ProductImportFormat.CSV, """
+				nome,tags,cores
+				Batom,vegano| matte ||,Rosa=#f0a|Nude=#dcb
+				""");
+
+		var fields = rows.get(0).fields();
+		assertEquals(2, fields.get("tags").size());
+		assertEquals("matte", fields.get("tags").get(1).asText());
+		assertEquals("#dcb", fields.get("cores").get("Nude").asText());
+	}
+
+	@Test
+	void reportsMalformedRowsWithoutStopping() throws IOException {
+		var rows = read(ProductImportFormat.CSV, """
+				nome,preco
+				Shampoo
+				Oleo,10
+				""");
+
+		assertEquals("Expected 2 columns, found 1", rows.get(0).error());
+		assertEquals("Oleo", rows.get(1).fields().get("nome").asText());
+	}
+
+	@Test
+	void skipsBlankLines() throws IOException {
+		var rows = read(ProductImportFormat.NDJSON, "{\"nome\":\"A\"}\n\n{\"nome\":\"B\"}\n{nope\n");
+
+		assertEquals(3, rows.size());
+		assertEquals(3, rows.get(1).line());
+		assertEquals(4, rows.get(2).line());
+		assertNull(rows.get(2).fields());
+	}
+
+	private List<ProductImportReader.Row> read(ProductImportFormat format, String body) throws IOException {
+		List<ProductImportReader.Row> rows = new ArrayList<>();
+		try (var reader = new ProductImportReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, objectMapper)) {
+			ProductImportReader.Row row;
+			while ((row = reader.next()) != null) rows.add(row);
+		}
+		return rows;
+	}
+}
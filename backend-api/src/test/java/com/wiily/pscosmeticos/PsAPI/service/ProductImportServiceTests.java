@@ -0,0 +1,85 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductImportFormat;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductImport;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductImport.RejectedRow;
+import com.wiily.pscosmeticos.PsAPI.infra.storage.ImageStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Not transactional: every chunk commits on its own, so the seed and the imported rows are deleted afterwards.
+@SpringBootTest(properties = "app.catalog.import-chunk-size=4")
+class ProductImportServiceTests {
+
+	private static final String CATEGORY = "import-test-category";
+	private static final String IMAGE = "ffffimporttest.webp";
+
+	@Autowired
+	ProductImportService importService;
+	@Autowired
+	JdbcTemplate jdbc;
+	@Autowired
+	ImageStore store;
+
+	private Long category;
+
+	@BeforeEach
+	void seed() throws Exception {
+		category = jdbc.queryForObject("""
+				insert into categories (category_name, category_slug, category_description, category_image_url, category_total_products, category_active)
+				values (?, ?, 'test', 'none', 0, true) returning category_id""", Long.class, CATEGORY, CATEGORY);
+		store.put(IMAGE, out -> out.write(new byte[]{0}));
+	}
+
+	@AfterEach
+	void clean() throws Exception {
+		jdbc.update("delete from products where product_category = ?", category);
+		jdbc.update("delete from categories where category_id = ?", category);
+		store.delete(IMAGE);
+	}
+
+	@Test
+	void rejectsOnlyTheRowsTheDatabaseRefuses() throws Exception {
+		// Postgres refuses NUL characters in text, which validation doesn't check, so lines 3 and 8 fail their chunks.
+		var report = importRows(i -> i == 3 || i == 8 ? "bad\\u0000" : "ok", i -> IMAGE);
+
+		assertEquals(8, report.importados());
+		assertEquals(2, report.rejeitados());
+		assertEquals(List.of(3L, 8L), report.rejeicoes().stream().map(RejectedRow::linha).toList());
+		assertTrue(report.rejeicoes().getFirst().motivo().startsWith("Refused by the database"));
+		assertEquals(8, jdbc.queryForObject("select count(*) from products where product_category = ?", Long.class, category));
+	}
+
+	@Test
+	void rejectsRowsWhoseImageIsNotStored() throws Exception {
+		var report = importRows(i -> "ok", i -> i == 2 ? "ffffimportmissing.webp" : IMAGE);
+
+		assertEquals(9, report.importados());
+		assertEquals(List.of(new RejectedRow(2, "The image 'ffffimportmissing.webp' is not stored")), report.rejeicoes());
+	}
+
+	private ReturnProductImport importRows(IntFunction<String> description, IntFunction<String> image) throws Exception {
+		String body = IntStream.rangeClosed(1, 10)
+				.mapToObj(i -> """
+						{"nome":"Import test %d","tipo":"STATIC","categoria":%d,"preco":10,"descricao":"%s",\
+						"descricaoCompleta":"d","modoUso":"m","ativo":true,"imagem":"%s"}"""
+						.formatted(i, category, description.apply(i), image.apply(i)))
+				.collect(Collectors.joining("\n"));
+		return importService.importProducts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				ProductImportFormat.NDJSON);
+	}
+}
@@ -0,0 +1,86 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Search latency over 100k products, measured through ProductService so it includes the card fetch.
+// Opt-in with -Dbenchmark=true. The seed is committed so it can be vacuumed like a live table, and deleted afterwards.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkTests {
+
+	private static final int PRODUCTS = 100_000;
+	private static final int RUNS = 50;
+	private static final List<String> QUERIES = List.of("hidratante", "shampoo cachos", "oleo argan", "serum vitamina", "condicionadr");
+	private static final String INGREDIENTS = "array['Argan','Queratina','Pantenol','Colágeno','Karité','Aloe']";
+
+	@Autowired
+	JdbcTemplate jdbc;
+	@Autowired
+	ProductService productService;
+
+	@Test
+	void searchAt100kProducts() {
+		Long category = jdbc.queryForObject("""
+				insert into categories (category_name, category_slug, category_description, category_image_url, category_total_products, category_active)
+				values ('Benchmark', 'benchmark', 'benchmark', 'none', 0, true) returning category_id""", Long.class);
+		try {
+			seed(category);
+			for (String q : QUERIES) {
+				assertFalse(productService.searchProducts(q, PageRequest.of(0, 12)).isEmpty(), q);
+				long[] times = new long[RUNS];
+				for (int i = 0; i < RUNS; i++) {
+					long start = System.nanoTime();
+					productService.searchProducts(q, PageRequest.of(i % 5, 12));
+					times[i] = System.nanoTime() - start;
+				}
+				Arrays.sort(times);
+				System.out.printf("search '%s': p50 %.2f ms, p95 %.2f ms%n", q, times[RUNS / 2] / 1e6, times[RUNS * 95 / 100] / 1e6);
+			}
+		} finally {
+			jdbc.update("delete from products where product_category = ?", category);
+			jdbc.update("delete from tags where tag_name like 'benchmark-tag-%'");
+			jdbc.update("delete from ingredients where ingredient_name like 'benchmark %'");
+			jdbc.update("delete from categories where category_id = ?", category);
+		}
+	}
+
+	private void seed(Long category) {
+		long start = System.nanoTime();
+		jdbc.update("""
+				insert into products (product_name, product_category, product_slug, product_image, product_price, product_discount_price,
+				    product_description, product_complete_description, product_how_to_use, product_active, product_create_at)
+				select n, ?, 'benchmark-' || g, 'none', 10 + g % 190, 0, d, d, 'Aplicar', true, now()
+				from generate_series(1, ?) g,
+				     lateral (select (array['Shampoo','Condicionador','Máscara','Sérum','Óleo','Creme','Leave-in','Batom'])[1 + g % 8]
+				                     || ' ' || (array['Hidratante','Nutritivo','Reparador','Cachos','Argan','Vitamina C','Matte','Antiqueda'])[1 + (g / 8) % 8]
+				                     || ' ' || g as n,
+				                     'Fórmula ' || (array['leve','intensa','vegana','sem sulfato'])[1 + g % 4] || ' para uso diário' as d) x""",
+				category, PRODUCTS);
+		jdbc.update("insert into tags (tag_name) select 'benchmark-tag-' || g from generate_series(1, 30) g");
+		jdbc.update("insert into ingredients (ingredient_name) select 'benchmark ' || (" + INGREDIENTS + ")[g] from generate_series(1, 6) g");
+		long links = System.nanoTime();
+		jdbc.update("""
+				insert into product_tag (product_id, tag_id)
+				select p.product_id, t.tag_id from products p
+				join tags t on t.tag_name in ('benchmark-tag-' || (1 + p.product_id % 30), 'benchmark-tag-' || (1 + (p.product_id / 30) % 30))
+				where p.product_category = ?""", category);
+		jdbc.update("""
+				insert into product_ingredient (product_id, ingredient_id)
+				select p.product_id, i.ingredient_id from products p
+				join ingredients i on i.ingredient_name = 'benchmark ' || (%s)[1 + p.product_id %% 6]
+				where p.product_category = ?""".formatted(INGREDIENTS), category);
+		long end = System.nanoTime();
+		jdbc.execute("vacuum analyze products");
+		System.out.printf("seeded %d products in %.0f ms (tag and ingredient links %.0f ms)%n", PRODUCTS, (end - start) / 1e6, (end - links) / 1e6);
+	}
+}
@@ -0,0 +1,113 @@
+package com.wiily.pscosmeticos.PsAPI.service;
+
+import com.wiily.pscosmeticos.PsAPI.domain.product.ProductRepository;
+import com.wiily.pscosmeticos.PsAPI.domain.product.dto.returns.ReturnProductSuggestion;
+import com.wiily.pscosmeticos.PsAPI.infra.cache.CatalogChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestionIndexTests {
+
+	private ProductSuggestionIndex index;
+	private ProductRepository repository;
+
+	@BeforeEach
+	void build() {
+		repository = mock(ProductRepository.class);
+		when(repository.findAllIdsAndNames()).thenReturn(List.of(
+				new Object[]{1L, "Shampoo Hidratação Intensa"},
+				new Object[]{2L, "Condicionador Hidratante"},
+				new Object[]{3L, "Óleo de Argan"}));
+		index = new ProductSuggestionIndex();
+		index.repository = repository;
+		index.build();
+	}
+
+	@Test
+	void findsEveryNameWithATokenStartingWithThePrefix() {
+		assertEquals(List.of(1L, 2L), ids(index.suggest("hidra", 10)));
+		assertEquals(List.of(2L), ids(index.suggest("cond", 10)));
+		assertEquals(List.of(), ids(index.suggest("xampu", 10)));
+	}
+
+	@Test
+	void foldsAccentsAndCaseOnBothSides() {
+		assertEquals(List.of(3L), ids(index.suggest("oleo", 10)));
+		assertEquals(List.of(3L), ids(index.suggest("ÓLE", 10)));
+		assertEquals(List.of(1L), ids(index.suggest("hidratacao", 10)));
+		assertEquals("Óleo de Argan", index.suggest("ole", 10).getFirst().name());
+	}
+
+	@Test
+	void earlierTokensMustAllMatch() {
+		assertEquals(List.of(1L), ids(index.suggest("int hidra", 10)));
+		assertEquals(List.of(2L), ids(index.suggest("condicionador, hid", 10)));
+		assertEquals(List.of(), ids(index.suggest("argan hidra", 10)));
+	}
+
+	@Test
+	void stopsAtTheLimit() {
+		assertEquals(List.of(1L), ids(index.suggest("hidra", 1)));
+	}
+
+	@Test
+	void ignoresQueriesWithoutTokens() {
+		assertEquals(List.of(), ids(index.suggest("", 10)));
+		assertEquals(List.of(), ids(index.suggest(" - ", 10)));
+	}
+
+	@Test
+	void renamedProductsLoseTheirOldTokens() {
+		when(repository.findIdsAndNamesByIdIn(any())).thenReturn(List.<Object[]>of(new Object[]{1L, "Shampoo Reparador"}));
+
+		index.onCatalogChanged(CatalogChangedEvent.product(1L));
+
+		assertEquals(List.of(2L), ids(index.suggest("hidra", 10)));
+		assertEquals(List.of(1L), ids(index.suggest("repa", 10)));
+		assertEquals(List.of(1L), ids(index.suggest("sham", 10)));
+	}
+
+	@Test
+	void deletedProductsAreDropped() {
+		when(repository.findIdsAndNamesByIdIn(any())).thenReturn(List.of());
+
+		index.onCatalogChanged(CatalogChangedEvent.product(3L));
+
+		assertEquals(List.of(), ids(index.suggest("argan", 10)));
+		assertEquals(List.of(1L, 2L), ids(index.suggest("hidra", 10)));
+	}
+
+	@Test
+	void reloadsEveryNameWhenAllProductsChanged() {
+		when(repository.findAllIdsAndNames()).thenReturn(List.of(
+				new Object[]{1L, "Shampoo Reparador"},
+				new Object[]{4L, "Máscara Hidratante"}));
+
+		index.onCatalogChanged(CatalogChangedEvent.allProducts());
+
+		assertEquals(List.of(4L), ids(index.suggest("hidra", 10)));
+		assertEquals(List.of(1L), ids(index.suggest("repa", 10)));
+		assertEquals(List.of(), ids(index.suggest("argan", 10)));
+	}
+
+	@Test
+	void catalogWideChangesDoNotReload() {
+		index.onCatalogChanged(CatalogChangedEvent.catalog());
+
+		verify(repository).findAllIdsAndNames();
+		verifyNoMoreInteractions(repository);
+	}
+
+	private static List<Long> ids(List<ReturnProductSuggestion> suggestions) {
+		return suggestions.stream().map(ReturnProductSuggestion::id).toList();
+	}
+}